@@ -2,6 +2,7 @@ import axios from 'axios';
 import type { Store } from '@reduxjs/toolkit';
 import { ENV } from '@config/env';
 import type { RootState } from '@app/store';
+import { activeStoreId, terminalId } from '@utils/ids';
 
 const httpClient = axios.create({
   baseURL: ENV.API_BASE_URL,
@@ -14,12 +15,36 @@ export const setupHttpClient = (store: Store<RootState>) => {
   httpClient.interceptors.request.use((config) => {
     const state = store.getState();
     const token = state.auth.token;
+    config.headers = config.headers ?? {};
+    config.headers['X-Terminal-Id'] = terminalId();
+    const storeId = activeStoreId();
+    if (storeId) {
+      config.headers['X-Store-Id'] = storeId;
+    }
     if (token) {
-      config.headers = config.headers ?? {};
       config.headers.Authorization = `Bearer ${token}`;
     }
     return config;
   });
 };
 
+const RETRY_DELAYS_MS = [300, 1000];
+
+// Retries lost requests and gateway errors with the same Idempotency-Key, so a
+// create that did reach the server is answered with the original result.
+export const postWithRetry = async <T>(url: string, payload: unknown, idempotencyKey: string) => {
+  for (let attempt = 0; ; attempt++) {
+    try {
+      return await httpClient.post<T>(url, payload, { headers: { 'Idempotency-Key': idempotencyKey } });
+    } catch (error: any) {
+      const status = error.response?.status;
+      const retriable = !error.response || status === 502 || status === 503 || status === 504;
+      if (!retriable || attempt >= RETRY_DELAYS_MS.length) {
+        throw error;
+      }
+      await new Promise((resolve) => setTimeout(resolve, RETRY_DELAYS_MS[attempt]));
+    }
+  }
+};
+
 export default httpClient;
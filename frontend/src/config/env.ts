@@ -1,9 +1,12 @@
 const apiBaseUrl = import.meta.env.VITE_API_BASE_URL as string | undefined;
+const storeId = import.meta.env.VITE_STORE_ID as string | undefined;
 
 if (!apiBaseUrl) {
   console.warn('VITE_API_BASE_URL no configurada. Usando valor por defecto http://localhost:8080/api');
 }
 
 export const ENV = {
-  API_BASE_URL: apiBaseUrl ?? 'http://localhost:8080/api'
+  API_BASE_URL: apiBaseUrl ?? 'http://localhost:8080/api',
+  // tienda por defecto de esta instalación; sin ella el backend usa la tienda 1
+  STORE_ID: storeId
 };
@@ -1,6 +1,7 @@
-import { createAsyncThunk, createSlice } from '@reduxjs/toolkit';
-import httpClient from '@api/httpClient';
+import { createAsyncThunk, createSlice, PayloadAction } from '@reduxjs/toolkit';
+import httpClient, { postWithRetry } from '@api/httpClient';
 import { Invoice, InvoicePayload } from '@types/invoice';
+import { StatusChangeEvent } from '@types/event';
 
 type InvoiceState = {
   items: Invoice[];
@@ -26,11 +27,29 @@ export const fetchInvoices = createAsyncThunk<Invoice[], void, { rejectValue: st
   }
 );
 
-export const createInvoice = createAsyncThunk<Invoice, InvoicePayload, { rejectValue: string }>(
+export const fetchInvoiceById = createAsyncThunk<Invoice, number, { rejectValue: string }>(
+  'invoices/fetchById',
+  async (id, { rejectWithValue }) => {
+    try {
+      const response = await httpClient.get<Invoice>(`/invoices/${id}`);
+      return response.data;
+    } catch (error: any) {
+      return rejectWithValue(error.response?.data?.message ?? 'No fue posible cargar la factura');
+    }
+  }
+);
+
+type CreateInvoiceArgs = {
+  payload: InvoicePayload;
+  // one key per form submission, reused by every retry of it
+  idempotencyKey: string;
+};
+
+export const createInvoice = createAsyncThunk<Invoice, CreateInvoiceArgs, { rejectValue: string }>(
   'invoices/create',
-  async (payload, { rejectWithValue }) => {
+  async ({ payload, idempotencyKey }, { rejectWithValue }) => {
     try {
-      const response = await httpClient.post<Invoice>('/invoices', payload);
+      const response = await postWithRetry<Invoice>('/invoices', payload, idempotencyKey);
       return response.data;
     } catch (error: any) {
       return rejectWithValue(error.response?.data?.message ?? 'No fue posible crear la factura');
@@ -41,7 +60,19 @@ export const createInvoice = createAsyncThunk<Invoice, InvoicePayload, { rejectV
 const invoiceSlice = createSlice({
   name: 'invoices',
   initialState,
-  reducers: {},
+  reducers: {
+    invoiceStatusChanged: (state, action: PayloadAction<StatusChangeEvent>) => {
+      const { entityId, status } = action.payload;
+      if (status === 'DELETED') {
+        state.items = state.items.filter((item) => item.id !== entityId);
+        return;
+      }
+      const existing = state.items.find((item) => item.id === entityId);
+      if (existing) {
+        existing.status = status as Invoice['status'];
+      }
+    }
+  },
   extraReducers: (builder) => {
     builder
       .addCase(fetchInvoices.pending, (state) => {
@@ -56,10 +87,22 @@ const invoiceSlice = createSlice({
         state.loading = false;
         state.error = action.payload ?? 'Error cargando facturas';
       })
+      .addCase(fetchInvoiceById.fulfilled, (state, action) => {
+        const index = state.items.findIndex((item) => item.id === action.payload.id);
+        if (index >= 0) {
+          state.items[index] = action.payload;
+        } else {
+          state.items.push(action.payload);
+        }
+      })
       .addCase(createInvoice.fulfilled, (state, action) => {
-        state.items.push(action.payload);
+        if (!state.items.some((item) => item.id === action.payload.id)) {
+          state.items.push(action.payload);
+        }
       });
   }
 });
 
+export const { invoiceStatusChanged } = invoiceSlice.actions;
+
 export default invoiceSlice.reducer;
@@ -1,6 +1,7 @@
-import { createAsyncThunk, createSlice } from '@reduxjs/toolkit';
-import httpClient from '@api/httpClient';
+import { createAsyncThunk, createSlice, PayloadAction } from '@reduxjs/toolkit';
+import httpClient, { postWithRetry } from '@api/httpClient';
 import { Order, OrderPayload } from '@types/order';
+import { StatusChangeEvent } from '@types/event';
 
 type OrderState = {
   items: Order[];
@@ -26,11 +27,29 @@ export const fetchOrders = createAsyncThunk<Order[], void, { rejectValue: string
   }
 );
 
-export const createOrder = createAsyncThunk<Order, OrderPayload, { rejectValue: string }>(
+export const fetchOrderById = createAsyncThunk<Order, number, { rejectValue: string }>(
+  'orders/fetchById',
+  async (id, { rejectWithValue }) => {
+    try {
+      const response = await httpClient.get<Order>(`/orders/${id}`);
+      return response.data;
+    } catch (error: any) {
+      return rejectWithValue(error.response?.data?.message ?? 'No fue posible cargar la orden');
+    }
+  }
+);
+
+type CreateOrderArgs = {
+  payload: OrderPayload;
+  // one key per form submission, reused by every retry of it
+  idempotencyKey: string;
+};
+
+export const createOrder = createAsyncThunk<Order, CreateOrderArgs, { rejectValue: string }>(
   'orders/create',
-  async (payload, { rejectWithValue }) => {
+  async ({ payload, idempotencyKey }, { rejectWithValue }) => {
     try {
-      const response = await httpClient.post<Order>('/orders', payload);
+      const response = await postWithRetry<Order>('/orders', payload, idempotencyKey);
       return response.data;
     } catch (error: any) {
       return rejectWithValue(error.response?.data?.message ?? 'No fue posible crear la orden');
@@ -53,7 +72,19 @@ export const deleteOrder = createAsyncThunk<number, number, { rejectValue: strin
 const orderSlice = createSlice({
   name: 'orders',
   initialState,
-  reducers: {},
+  reducers: {
+    orderStatusChanged: (state, action: PayloadAction<StatusChangeEvent>) => {
+      const { entityId, status } = action.payload;
+      if (status === 'DELETED') {
+        state.items = state.items.filter((item) => item.id !== entityId);
+        return;
+      }
+      const existing = state.items.find((item) => item.id === entityId);
+      if (existing) {
+        existing.status = status as Order['status'];
+      }
+    }
+  },
   extraReducers: (builder) => {
     builder
       .addCase(fetchOrders.pending, (state) => {
@@ -68,8 +99,18 @@ const orderSlice = createSlice({
         state.loading = false;
         state.error = action.payload ?? 'Error cargando órdenes';
       })
+      .addCase(fetchOrderById.fulfilled, (state, action) => {
+        const index = state.items.findIndex((item) => item.id === action.payload.id);
+        if (index >= 0) {
+          state.items[index] = action.payload;
+        } else {
+          state.items.push(action.payload);
+        }
+      })
       .addCase(createOrder.fulfilled, (state, action) => {
-        state.items.push(action.payload);
+        if (!state.items.some((item) => item.id === action.payload.id)) {
+          state.items.push(action.payload);
+        }
       })
       .addCase(deleteOrder.fulfilled, (state, action) => {
         state.items = state.items.filter((item) => item.id !== action.payload);
@@ -77,4 +118,6 @@ const orderSlice = createSlice({
   }
 });
 
+export const { orderStatusChanged } = orderSlice.actions;
+
 export default orderSlice.reducer;
@@ -0,0 +1,39 @@
+import { useEffect, useRef } from 'react';
+import { ENV } from '@config/env';
+import { StatusChangeEvent } from '@types/event';
+import { activeStoreId } from '@utils/ids';
+
+type StatusEventHandlers = {
+  onStatus: (event: StatusChangeEvent) => void;
+  onReset: () => void;
+};
+
+let lastEventId: string | null = null;
+
+export const useStatusEvents = (handlers: StatusEventHandlers) => {
+  const handlersRef = useRef(handlers);
+  handlersRef.current = handlers;
+
+  useEffect(() => {
+    // EventSource cannot send headers, the store goes in the query string
+    const params = new URLSearchParams();
+    const storeId = activeStoreId();
+    if (storeId) {
+      params.set('storeId', storeId);
+    }
+    if (lastEventId) {
+      params.set('lastEventId', lastEventId);
+    }
+    const query = params.toString() ? `?${params.toString()}` : '';
+    const source = new EventSource(`${ENV.API_BASE_URL}/events/status${query}`);
+
+    source.addEventListener('status', (message) => {
+      const event = message as MessageEvent<string>;
+      lastEventId = event.lastEventId;
+      handlersRef.current.onStatus(JSON.parse(event.data) as StatusChangeEvent);
+    });
+    source.addEventListener('reset', () => handlersRef.current.onReset());
+
+    return () => source.close();
+  }, []);
+};
@@ -1,4 +1,4 @@
-import { useEffect, useMemo, useState } from 'react';
+import { useEffect, useMemo, useRef, useState } from 'react';
 import {
   Badge,
   Button,
@@ -18,11 +18,14 @@ import {
   Table
 } from 'reactstrap';
 import { useAppDispatch, useAppSelector } from '@hooks/redux';
-import { fetchInvoices, createInvoice } from '@features/invoices/invoiceSlice';
+import { fetchInvoices, createInvoice, fetchInvoiceById, invoiceStatusChanged } from '@features/invoices/invoiceSlice';
 import { fetchOrders } from '@features/orders/orderSlice';
 import { fetchProducts } from '@features/products/productSlice';
 import { Invoice } from '@types/invoice';
+import { StatusChangeEvent } from '@types/event';
+import { useStatusEvents } from '@hooks/useStatusEvents';
 import { formatCurrency, formatDate } from '@utils/formatters';
+import { randomId } from '@utils/ids';
 
 const paymentMethods: Invoice['paymentMethod'][] = ['CASH', 'CARD', 'TRANSFER', 'CHECK'];
 const invoiceStatuses: Invoice['status'][] = ['DRAFT', 'ISSUED', 'PAID', 'CANCELLED'];
@@ -30,7 +33,6 @@ const invoiceStatuses: Invoice['status'][] = ['DRAFT', 'ISSUED', 'PAID', 'CANCEL
 const defaultItem = { productId: 0, description: '', quantity: 1, unitPrice: 0 };
 
 const createDefaultForm = () => ({
-  invoiceNumber: '',
   orderId: 0,
   issueDate: new Date().toISOString().substring(0, 10),
   dueDate: new Date().toISOString().substring(0, 10),
@@ -53,6 +55,7 @@ const InvoicesPage = () => {
   const orders = useAppSelector((state) => state.orders.items);
   const products = useAppSelector((state) => state.products.items);
   const [showModal, setShowModal] = useState(false);
+  const submissionKey = useRef(randomId());
   const [formState, setFormState] = useState<InvoiceFormState>(createDefaultForm());
   const [search, setSearch] = useState('');
 
@@ -62,6 +65,25 @@ const InvoicesPage = () => {
     dispatch(fetchProducts());
   }, [dispatch]);
 
+  // a retry of an unchanged form reuses its key; once the form is edited it is a new request
+  useEffect(() => {
+    submissionKey.current = randomId();
+  }, [formState]);
+
+  useStatusEvents({
+    onStatus: (event: StatusChangeEvent) => {
+      if (event.entity !== 'invoice') {
+        return;
+      }
+      if (event.status !== 'DELETED' && !invoices.some((invoice) => invoice.id === event.entityId)) {
+        dispatch(fetchInvoiceById(event.entityId));
+        return;
+      }
+      dispatch(invoiceStatusChanged(event));
+    },
+    onReset: () => dispatch(fetchInvoices())
+  });
+
   const filteredInvoices = useMemo(() => {
     const term = search.toLowerCase();
     return invoices.filter(
@@ -158,8 +180,11 @@ const InvoicesPage = () => {
       ...formState,
       items: formState.items.filter((item) => item.productId)
     };
-    await dispatch(createInvoice(payload));
-    handleClose();
+    const result = await dispatch(createInvoice({ payload, idempotencyKey: submissionKey.current }));
+    // on failure the form stays open and submitting it again unchanged reuses the key
+    if (createInvoice.fulfilled.match(result)) {
+      handleClose();
+    }
   };
 
   return (
@@ -235,18 +260,6 @@ const InvoicesPage = () => {
         <Form onSubmit={handleSubmit}>
           <ModalBody>
             <Row className="g-3">
-              <Col md={4}>
-                <FormGroup>
-                  <Label for="invoiceNumber">Número de factura</Label>
-                  <Input
-                    id="invoiceNumber"
-                    name="invoiceNumber"
-                    value={formState.invoiceNumber}
-                    onChange={(event) => setFormState({ ...formState, invoiceNumber: event.target.value })}
-                    required
-                  />
-                </FormGroup>
-              </Col>
               <Col md={4}>
                 <FormGroup>
                   <Label for="orderId">Orden asociada</Label>
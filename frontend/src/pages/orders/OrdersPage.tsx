@@ -1,4 +1,4 @@
-import { useEffect, useMemo, useState } from 'react';
+import { useEffect, useMemo, useRef, useState } from 'react';
 import {
   Badge,
   Button,
@@ -18,10 +18,13 @@ import {
   Table
 } from 'reactstrap';
 import { useAppDispatch, useAppSelector } from '@hooks/redux';
-import { createOrder, deleteOrder, fetchOrders } from '@features/orders/orderSlice';
+import { createOrder, deleteOrder, fetchOrderById, fetchOrders, orderStatusChanged } from '@features/orders/orderSlice';
 import { fetchProducts } from '@features/products/productSlice';
 import { Order } from '@types/order';
+import { StatusChangeEvent } from '@types/event';
+import { useStatusEvents } from '@hooks/useStatusEvents';
 import { formatCurrency, formatDate } from '@utils/formatters';
+import { randomId } from '@utils/ids';
 
 const orderStatuses: Order['status'][] = [
   'PENDING',
@@ -35,7 +38,6 @@ const orderStatuses: Order['status'][] = [
 const defaultItem = { productId: 0, quantity: 1, unitPrice: 0, description: '' };
 
 const createDefaultForm = () => ({
-  orderNumber: '',
   status: 'PENDING' as Order['status'],
   subtotal: 0,
   taxAmount: 0,
@@ -57,6 +59,7 @@ const OrdersPage = () => {
   const { items: orders, loading } = useAppSelector((state) => state.orders);
   const products = useAppSelector((state) => state.products.items);
   const [showModal, setShowModal] = useState(false);
+  const submissionKey = useRef(randomId());
   const [formState, setFormState] = useState<OrderFormState>(createDefaultForm());
   const [search, setSearch] = useState('');
 
@@ -65,6 +68,25 @@ const OrdersPage = () => {
     dispatch(fetchProducts());
   }, [dispatch]);
 
+  // a retry of an unchanged form reuses its key; once the form is edited it is a new request
+  useEffect(() => {
+    submissionKey.current = randomId();
+  }, [formState]);
+
+  useStatusEvents({
+    onStatus: (event: StatusChangeEvent) => {
+      if (event.entity !== 'order') {
+        return;
+      }
+      if (event.status !== 'DELETED' && !orders.some((order) => order.id === event.entityId)) {
+        dispatch(fetchOrderById(event.entityId));
+        return;
+      }
+      dispatch(orderStatusChanged(event));
+    },
+    onReset: () => dispatch(fetchOrders())
+  });
+
   const filteredOrders = useMemo(() => {
     const term = search.toLowerCase();
     return orders.filter(
@@ -154,8 +176,11 @@ const OrdersPage = () => {
       ...formState,
       items: formState.items.filter((item) => item.productId)
     };
-    await dispatch(createOrder(payload));
-    handleClose();
+    const result = await dispatch(createOrder({ payload, idempotencyKey: submissionKey.current }));
+    // on failure the form stays open and submitting it again unchanged reuses the key
+    if (createOrder.fulfilled.match(result)) {
+      handleClose();
+    }
   };
 
   const handleDelete = async (order: Order) => {
@@ -243,18 +268,6 @@ const OrdersPage = () => {
         <Form onSubmit={handleSubmit}>
           <ModalBody>
             <Row className="g-3">
-              <Col md={3}>
-                <FormGroup>
-                  <Label for="orderNumber">Número de orden</Label>
-                  <Input
-                    id="orderNumber"
-                    name="orderNumber"
-                    value={formState.orderNumber}
-                    onChange={(event) => setFormState({ ...formState, orderNumber: event.target.value })}
-                    required
-                  />
-                </FormGroup>
-              </Col>
               <Col md={3}>
                 <FormGroup>
                   <Label for="status">Estado</Label>
@@ -0,0 +1,8 @@
+export interface StatusChangeEvent {
+  id: number;
+  entity: 'order' | 'invoice';
+  entityId: number;
+  number?: string;
+  status: string;
+  timestamp: number;
+}
@@ -32,7 +32,7 @@ export interface Invoice {
   invoiceItems?: InvoiceItem[];
 }
 
-export type InvoicePayload = Omit<Invoice, 'id' | 'order' | 'invoiceItems' | 'createdAt'> & {
+export type InvoicePayload = Omit<Invoice, 'id' | 'invoiceNumber' | 'order' | 'invoiceItems' | 'createdAt'> & {
   orderId: number;
   items?: Array<{
     productId: number;
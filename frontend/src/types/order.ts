@@ -25,7 +25,7 @@ export interface Order {
   orderItems?: OrderItem[];
 }
 
-export type OrderPayload = Omit<Order, 'id' | 'orderItems' | 'createdAt' | 'updatedAt'> & {
+export type OrderPayload = Omit<Order, 'id' | 'orderNumber' | 'orderItems' | 'createdAt' | 'updatedAt'> & {
   items?: Array<{
     productId: number;
     quantity: number;
@@ -0,0 +1,36 @@
+import { ENV } from '@config/env';
+
+const TERMINAL_KEY = 'pos.terminalId';
+const STORE_KEY = 'pos.storeId';
+
+// crypto.randomUUID only exists in secure contexts (https or localhost)
+export const randomId = (): string => {
+  if (typeof crypto !== 'undefined' && typeof crypto.randomUUID === 'function') {
+    return crypto.randomUUID();
+  }
+  const bytes = new Uint8Array(16);
+  if (typeof crypto !== 'undefined' && typeof crypto.getRandomValues === 'function') {
+    crypto.getRandomValues(bytes);
+  } else {
+    for (let i = 0; i < bytes.length; i++) {
+      bytes[i] = Math.floor(Math.random() * 256);
+    }
+  }
+  bytes[6] = (bytes[6] & 0x0f) | 0x40;
+  bytes[8] = (bytes[8] & 0x3f) | 0x80;
+  const hex = Array.from(bytes, (byte) => byte.toString(16).padStart(2, '0')).join('');
+  return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+};
+
+// one id per browser, so each register gets its own rate-limit bucket
+export const terminalId = (): string => {
+  let id = localStorage.getItem(TERMINAL_KEY);
+  if (!id) {
+    id = `WEB-${randomId().slice(0, 8)}`;
+    localStorage.setItem(TERMINAL_KEY, id);
+  }
+  return id;
+};
+
+// the store this register works for: set per browser, else the build's default
+export const activeStoreId = (): string | null => localStorage.getItem(STORE_KEY) ?? ENV.STORE_ID ?? null;
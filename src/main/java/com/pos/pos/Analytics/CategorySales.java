@@ -0,0 +1,6 @@
+package com.pos.pos.Analytics;
+
+import java.util.List;
+
+public record CategorySales(Long categoryId, long revenueMinor, List<ProductSales> topProducts) {
+}
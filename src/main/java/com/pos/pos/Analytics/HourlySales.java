@@ -0,0 +1,4 @@
+package com.pos.pos.Analytics;
+
+public record HourlySales(int hour, String paymentMethod, long lines, long quantity, long revenueMinor) {
+}
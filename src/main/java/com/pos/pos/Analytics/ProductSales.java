@@ -0,0 +1,4 @@
+package com.pos.pos.Analytics;
+
+public record ProductSales(Long productId, Long categoryId, long quantity, long revenueMinor) {
+}
@@ -0,0 +1,43 @@
+package com.pos.pos.Analytics;
+
+/**
+ * Fixed-size block of sales facts stored column by column. Only the store
+ * appends to it, under its lock; readers see rows below {@link #size}.
+ */
+final class SalesChunk {
+	static final int CAPACITY = 1 << 16;
+
+	final int[] product = new int[CAPACITY];
+	final int[] category = new int[CAPACITY];
+	final long[] time = new long[CAPACITY];
+	final int[] quantity = new int[CAPACITY];
+	final long[] amount = new long[CAPACITY];
+	final byte[] paymentMethod = new byte[CAPACITY];
+
+	// zone map so scans can skip chunks outside the requested period
+	long minTime = Long.MAX_VALUE;
+	long maxTime = Long.MIN_VALUE;
+
+	volatile int size;
+
+	boolean isFull() {
+		return size == CAPACITY;
+	}
+
+	void append(int productIndex, int categoryIndex, long at, int qty, long amountMinor, byte payment) {
+		int row = size;
+		product[row] = productIndex;
+		category[row] = categoryIndex;
+		time[row] = at;
+		quantity[row] = qty;
+		amount[row] = amountMinor;
+		paymentMethod[row] = payment;
+		if (at < minTime) {
+			minTime = at;
+		}
+		if (at > maxTime) {
+			maxTime = at;
+		}
+		size = row + 1;
+	}
+}
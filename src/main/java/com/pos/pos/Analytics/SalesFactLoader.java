@@ -0,0 +1,250 @@
+package com.pos.pos.Analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pos.pos.Model.Invoice.InvoiceStatus;
+import com.pos.pos.Repository.InvoiceItemRepository;
+import com.pos.pos.Repository.ProductRepository;
+import com.pos.pos.Tenant.Shards;
+import com.pos.pos.Tenant.TenantContext;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Feeds {@link SalesFactStore}: a full load at startup, then one invoice
+ * line at a time as lines are added or removed, and whole invoices as they
+ * are cancelled or restored. Everything is applied on a single background
+ * thread so the stores see one writer and checkout never waits on them.
+ *
+ * Changes are read in the transaction that makes them, while it holds the
+ * invoice row lock, and applied once it commits, in the order they were
+ * read. A line and a cancellation of its invoice are therefore counted
+ * exactly as they committed. Every store gets its own fact store, so a
+ * store only ever sees its own sales; the load watermark is per shard,
+ * since line ids are only unique within one.
+ */
+@Component
+public class SalesFactLoader {
+	private static final Logger log = LoggerFactory.getLogger(SalesFactLoader.class);
+	private static final int BATCH_SIZE = 10_000;
+
+	@Autowired
+	private InvoiceItemRepository invoiceItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private Shards shards;
+
+	private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "sales-fact-loader");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Map<Long, SalesFactStore> stores = new ConcurrentHashMap<>();
+	// per shard, invoice lines up to this id came in with the initial load; no entry until it has run
+	private final Map<String, Long> loadedUpToItemId = new ConcurrentHashMap<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadAll() {
+		worker.execute(() -> shards.forEach(this::load));
+	}
+
+	// analytics of the current store
+	public SalesFactStore currentStore() {
+		return storeFor(TenantContext.current());
+	}
+
+	private void load(String shard) {
+		long started = System.currentTimeMillis();
+		try {
+			long maxItemId = invoiceItemRepository.findMaxId();
+			Map<Long, Long> categories = toMap(productRepository.findPrimaryCategories());
+			TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+			readOnly.setReadOnly(true);
+			readOnly.executeWithoutResult(status -> {
+				try (Stream<SalesFactRow> rows = invoiceItemRepository.streamSalesFacts(InvoiceStatus.CANCELLED, maxItemId)) {
+					List<SalesFactRow> batch = new ArrayList<>(BATCH_SIZE);
+					rows.forEach(row -> {
+						batch.add(row);
+						if (batch.size() == BATCH_SIZE) {
+							append(batch, categories, 1);
+							batch.clear();
+						}
+					});
+					append(batch, categories, 1);
+				}
+			});
+			loadedUpToItemId.put(shard, maxItemId);
+			log.info("Loaded sales facts up to line {} on shard {} in {} ms", maxItemId, shard, System.currentTimeMillis() - started);
+		} catch (RuntimeException e) {
+			log.error("Sales analytics load failed on shard {}, its analytics will stay empty", shard, e);
+		}
+	}
+
+	// Lines arrive one by one after their invoice header, so facts follow the lines.
+	// Each of these has to be called inside the transaction making the change,
+	// after it has locked the invoice (see InvoiceRepository.findForShare and
+	// findForUpdate); without one the change is applied right away.
+
+	public void recordItem(Long itemId) {
+		if (itemId == null) {
+			return;
+		}
+		String shard = shards.current();
+		List<SalesFactRow> rows = invoiceItemRepository.findActiveSalesFactsByItemId(itemId, InvoiceStatus.CANCELLED);
+		submit(rows, 1, () -> {
+			Long loaded = loadedUpToItemId.get(shard);
+			// lines up to the watermark came in with the initial load
+			return loaded != null && itemId > loaded;
+		});
+	}
+
+	// has to run before the line is deleted
+	public void retractItem(Long itemId) {
+		if (itemId == null) {
+			return;
+		}
+		String shard = shards.current();
+		submit(invoiceItemRepository.findActiveSalesFactsByItemId(itemId, InvoiceStatus.CANCELLED), -1,
+				() -> loadedUpToItemId.containsKey(shard));
+	}
+
+	// a cancelled invoice is taken out by appending its lines negated
+	public void reverseInvoice(Long invoiceId) {
+		submitInvoice(invoiceId, -1);
+	}
+
+	public void restoreInvoice(Long invoiceId) {
+		submitInvoice(invoiceId, 1);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		worker.shutdownNow();
+	}
+
+	// waits for the updates submitted so far
+	void awaitIdle() throws InterruptedException, ExecutionException {
+		worker.submit(() -> {
+		}).get();
+	}
+
+	private void submitInvoice(Long invoiceId, int sign) {
+		if (invoiceId == null) {
+			return;
+		}
+		String shard = shards.current();
+		// before the initial load has run, it will pick up the current state by itself
+		submit(invoiceItemRepository.findSalesFactsByInvoiceId(invoiceId), sign, () -> loadedUpToItemId.containsKey(shard));
+	}
+
+	/**
+	 * Queues the rows right away, so the worker keeps the order in which
+	 * transactions read them, but the worker only applies them once their
+	 * transaction has committed and drops them if it rolls back. It waits
+	 * for a transaction still in flight, which holds back later updates
+	 * only as long as that transaction runs.
+	 */
+	private void submit(List<SalesFactRow> rows, int sign, BooleanSupplier applies) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		Long storeId = TenantContext.current();
+		CompletableFuture<Boolean> committed = new CompletableFuture<>();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					committed.complete(status == STATUS_COMMITTED);
+				}
+			});
+		} else {
+			committed.complete(true);
+		}
+		worker.execute(() -> {
+			try {
+				if (committed.get() && applies.getAsBoolean()) {
+					withTenant(storeId, () -> append(rows, sign));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				log.warn("Could not update sales facts", e.getCause());
+			}
+		});
+	}
+
+	// read product categories from the shard of the store that wrote the rows
+	private void withTenant(Long storeId, Runnable update) {
+		TenantContext.set(storeId);
+		try {
+			update.run();
+		} catch (RuntimeException e) {
+			log.warn("Could not update sales facts of store {}", storeId, e);
+		} finally {
+			TenantContext.clear();
+		}
+	}
+
+	private SalesFactStore storeFor(Long storeId) {
+		return stores.computeIfAbsent(storeId, id -> new SalesFactStore());
+	}
+
+	private void append(List<SalesFactRow> rows, int sign) {
+		Set<Long> productIds = new HashSet<>();
+		for (SalesFactRow row : rows) {
+			productIds.add(row.productId());
+		}
+		Map<Long, Long> categories = productIds.isEmpty() ? Map.of()
+				: toMap(productRepository.findPrimaryCategories(productIds));
+		append(rows, categories, sign);
+	}
+
+	// a shard holds several stores, each row goes to the store it was sold in
+	private void append(List<SalesFactRow> rows, Map<Long, Long> categories, int sign) {
+		Map<Long, List<SalesFactRow>> byStore = new HashMap<>();
+		for (SalesFactRow row : rows) {
+			if (row.storeId() != null) {
+				byStore.computeIfAbsent(row.storeId(), id -> new ArrayList<>()).add(row);
+			}
+		}
+		byStore.forEach((storeId, storeRows) -> storeFor(storeId).append(storeRows, categories, sign));
+	}
+
+	private static Map<Long, Long> toMap(List<Object[]> pairs) {
+		Map<Long, Long> map = new HashMap<>(pairs.size() * 2);
+		for (Object[] pair : pairs) {
+			map.put((Long) pair[0], (Long) pair[1]);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,17 @@
+package com.pos.pos.Analytics;
+
+import java.time.LocalDateTime;
+
+import com.pos.pos.Model.Invoice.PaymentMethod;
+
+/**
+ * One invoice line as read from the database for loading into the store.
+ */
+public record SalesFactRow(
+		Long storeId,
+		Long productId,
+		LocalDateTime soldAt,
+		Integer quantity,
+		Double totalPrice,
+		PaymentMethod paymentMethod) {
+}
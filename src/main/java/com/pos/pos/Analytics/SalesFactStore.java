@@ -0,0 +1,260 @@
+package com.pos.pos.Analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import com.pos.pos.Model.Invoice.PaymentMethod;
+
+/**
+ * In-memory columnar copy of invoice lines used for sales analytics.
+ *
+ * Facts are appended into fixed-size chunks of primitive arrays and never
+ * moved, so appends only take a lock against other writers and queries run
+ * without locking on a snapshot of the chunk sizes. Product and category
+ * ids are dictionary-encoded to dense indexes so group-by can use plain
+ * arrays as accumulators. Times are the wall-clock time of the invoice
+ * (the entities use LocalDateTime), stored as seconds. There is one store
+ * per tenant store, owned by {@link SalesFactLoader}.
+ */
+public class SalesFactStore {
+	private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
+	private static final int HOURS = 24;
+
+	private final ForkJoinPool pool = ForkJoinPool.commonPool();
+	private final Object appendLock = new Object();
+
+	private volatile SalesChunk[] chunks = new SalesChunk[0];
+
+	// Dictionaries grow by doubling; the volatile counts publish new entries.
+	// Dense category 0 is reserved for products without a category.
+	private final Map<Long, Integer> categoryIndex = new ConcurrentHashMap<>();
+	private long[] categoryIds = new long[16];
+	private volatile int categoryCount = 1;
+	private final Map<Long, Integer> productIndex = new ConcurrentHashMap<>();
+	private long[] productIds = new long[1024];
+	private int[] productCategory = new int[1024];
+	private volatile int productCount;
+
+	public void append(List<SalesFactRow> rows, Map<Long, Long> categoryByProduct, int sign) {
+		synchronized (appendLock) {
+			for (SalesFactRow row : rows) {
+				if (row.productId() == null || row.soldAt() == null) {
+					continue;
+				}
+				int product = productIndexFor(row.productId(), categoryByProduct.get(row.productId()));
+				int quantity = row.quantity() == null ? 0 : row.quantity();
+				long amount = row.totalPrice() == null ? 0 : Math.round(row.totalPrice() * 100);
+				PaymentMethod payment = row.paymentMethod() == null ? PaymentMethod.CASH : row.paymentMethod();
+				writableChunk().append(product, productCategory[product], toEpoch(row.soldAt()),
+						sign * quantity, sign * amount, (byte) payment.ordinal());
+			}
+		}
+	}
+
+	public long size() {
+		long total = 0;
+		for (SalesChunk chunk : chunks) {
+			total += chunk.size;
+		}
+		return total;
+	}
+
+	public List<ProductSales> topProducts(LocalDateTime from, LocalDateTime to, Long categoryId, int limit) {
+		Snapshot snapshot = snapshot();
+		int category = -1;
+		if (categoryId != null) {
+			Integer index = categoryIndex.get(categoryId);
+			if (index == null) {
+				return List.of();
+			}
+			category = index;
+		}
+		long[] totals = perProductTotals(snapshot, from, to, category);
+		return top(snapshot, totals, limit, -1);
+	}
+
+	public List<CategorySales> topProductsByCategory(LocalDateTime from, LocalDateTime to, int limit) {
+		Snapshot snapshot = snapshot();
+		long[] totals = perProductTotals(snapshot, from, to, -1);
+		int categories = snapshot.categoryCount;
+		long[] categoryRevenue = new long[categories];
+		boolean[] seen = new boolean[categories];
+		for (int p = 0; p < snapshot.productCount; p++) {
+			if (totals[2 * p] != 0 || totals[2 * p + 1] != 0) {
+				categoryRevenue[snapshot.productCategory[p]] += totals[2 * p + 1];
+				seen[snapshot.productCategory[p]] = true;
+			}
+		}
+		List<CategorySales> result = new ArrayList<>();
+		for (int c = 0; c < categories; c++) {
+			if (seen[c]) {
+				result.add(new CategorySales(categoryId(snapshot, c), categoryRevenue[c], top(snapshot, totals, limit, c)));
+			}
+		}
+		result.sort(Comparator.comparingLong(CategorySales::revenueMinor).reversed());
+		return result;
+	}
+
+	public List<HourlySales> salesByHourAndPaymentMethod(LocalDateTime from, LocalDateTime to) {
+		Snapshot snapshot = snapshot();
+		int methods = PAYMENT_METHODS.length;
+		long[] totals = scan(snapshot, from, to, HOURS * methods * 3, (chunk, row, acc) -> {
+			int hour = (int) Math.floorMod(Math.floorDiv(chunk.time[row], 3600L), (long) HOURS);
+			int slot = 3 * (hour * methods + chunk.paymentMethod[row]);
+			acc[slot]++;
+			acc[slot + 1] += chunk.quantity[row];
+			acc[slot + 2] += chunk.amount[row];
+		});
+		List<HourlySales> result = new ArrayList<>();
+		for (int hour = 0; hour < HOURS; hour++) {
+			for (int m = 0; m < methods; m++) {
+				int slot = 3 * (hour * methods + m);
+				if (totals[slot] != 0) {
+					result.add(new HourlySales(hour, PAYMENT_METHODS[m].name(), totals[slot], totals[slot + 1],
+							totals[slot + 2]));
+				}
+			}
+		}
+		return result;
+	}
+
+	private long[] perProductTotals(Snapshot snapshot, LocalDateTime from, LocalDateTime to, int category) {
+		int width = 2 * snapshot.productCount;
+		if (category < 0) {
+			return scan(snapshot, from, to, width, (chunk, row, acc) -> {
+				int slot = 2 * chunk.product[row];
+				acc[slot] += chunk.quantity[row];
+				acc[slot + 1] += chunk.amount[row];
+			});
+		}
+		return scan(snapshot, from, to, width, (chunk, row, acc) -> {
+			if (chunk.category[row] == category) {
+				int slot = 2 * chunk.product[row];
+				acc[slot] += chunk.quantity[row];
+				acc[slot + 1] += chunk.amount[row];
+			}
+		});
+	}
+
+	private long[] scan(Snapshot snapshot, LocalDateTime from, LocalDateTime to, int width,
+			SalesScanTask.RowAggregator aggregator) {
+		int count = snapshot.chunks.length;
+		if (count == 0) {
+			return new long[width];
+		}
+		int chunksPerTask = Math.max(1, count / (pool.getParallelism() * 4));
+		long fromTime = from == null ? Long.MIN_VALUE : toEpoch(from);
+		long toTime = to == null ? Long.MAX_VALUE : toEpoch(to);
+		return pool.invoke(new SalesScanTask(snapshot.chunks, snapshot.sizes, 0, count, chunksPerTask,
+				fromTime, toTime, width, aggregator));
+	}
+
+	private List<ProductSales> top(Snapshot snapshot, long[] totals, int limit, int category) {
+		PriorityQueue<Integer> heap = new PriorityQueue<>(Comparator.comparingLong(p -> totals[2 * p + 1]));
+		for (int p = 0; p < snapshot.productCount; p++) {
+			if (category >= 0 && snapshot.productCategory[p] != category) {
+				continue;
+			}
+			if (totals[2 * p] == 0 && totals[2 * p + 1] == 0) {
+				continue;
+			}
+			if (heap.size() < limit) {
+				heap.add(p);
+			} else if (limit > 0 && totals[2 * p + 1] > totals[2 * heap.peek() + 1]) {
+				heap.poll();
+				heap.add(p);
+			}
+		}
+		List<ProductSales> result = new ArrayList<>(heap.size());
+		while (!heap.isEmpty()) {
+			int p = heap.poll();
+			result.add(new ProductSales(snapshot.productIds[p], categoryId(snapshot, snapshot.productCategory[p]),
+					totals[2 * p], totals[2 * p + 1]));
+		}
+		result.sort(Comparator.comparingLong(ProductSales::revenueMinor).reversed());
+		return result;
+	}
+
+	/**
+	 * Chunk sizes are read before the dictionary counts, and the counts
+	 * before the arrays, so every row a query sees refers to a product and
+	 * category the snapshot knows about.
+	 */
+	private Snapshot snapshot() {
+		SalesChunk[] current = chunks;
+		int[] sizes = new int[current.length];
+		for (int i = 0; i < current.length; i++) {
+			sizes[i] = current[i].size;
+		}
+		int products = productCount;
+		int categories = categoryCount;
+		return new Snapshot(current, sizes, products, productIds, productCategory, categories, categoryIds);
+	}
+
+	private int productIndexFor(Long productId, Long categoryId) {
+		Integer index = productIndex.get(productId);
+		if (index != null) {
+			return index;
+		}
+		int category = categoryIndexFor(categoryId);
+		int next = productCount;
+		if (next == productIds.length) {
+			productIds = Arrays.copyOf(productIds, next * 2);
+			productCategory = Arrays.copyOf(productCategory, next * 2);
+		}
+		productIds[next] = productId;
+		productCategory[next] = category;
+		productCount = next + 1;
+		productIndex.put(productId, next);
+		return next;
+	}
+
+	private int categoryIndexFor(Long categoryId) {
+		if (categoryId == null) {
+			return 0;
+		}
+		Integer index = categoryIndex.get(categoryId);
+		if (index != null) {
+			return index;
+		}
+		int next = categoryCount;
+		if (next == categoryIds.length) {
+			categoryIds = Arrays.copyOf(categoryIds, next * 2);
+		}
+		categoryIds[next] = categoryId;
+		categoryCount = next + 1;
+		categoryIndex.put(categoryId, next);
+		return next;
+	}
+
+	private SalesChunk writableChunk() {
+		SalesChunk[] current = chunks;
+		if (current.length > 0 && !current[current.length - 1].isFull()) {
+			return current[current.length - 1];
+		}
+		SalesChunk[] grown = Arrays.copyOf(current, current.length + 1);
+		grown[current.length] = new SalesChunk();
+		chunks = grown;
+		return grown[current.length];
+	}
+
+	private static Long categoryId(Snapshot snapshot, int category) {
+		return category == 0 ? null : snapshot.categoryIds[category];
+	}
+
+	private static long toEpoch(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	private record Snapshot(SalesChunk[] chunks, int[] sizes, int productCount, long[] productIds,
+			int[] productCategory, int categoryCount, long[] categoryIds) {
+	}
+}
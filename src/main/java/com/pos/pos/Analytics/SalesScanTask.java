@@ -0,0 +1,82 @@
+package com.pos.pos.Analytics;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join scan over a range of chunks. Each leaf fills its own
+ * accumulator array and the parents add them together, so no state is
+ * shared while scanning.
+ */
+final class SalesScanTask extends RecursiveTask<long[]> {
+	@FunctionalInterface
+	interface RowAggregator {
+		void accumulate(SalesChunk chunk, int row, long[] accumulator);
+	}
+
+	private final SalesChunk[] chunks;
+	private final int[] sizes;
+	private final int fromChunk;
+	private final int toChunk;
+	private final int chunksPerTask;
+	private final long fromTime;
+	private final long toTime;
+	private final int width;
+	private final RowAggregator aggregator;
+
+	SalesScanTask(SalesChunk[] chunks, int[] sizes, int fromChunk, int toChunk, int chunksPerTask,
+			long fromTime, long toTime, int width, RowAggregator aggregator) {
+		this.chunks = chunks;
+		this.sizes = sizes;
+		this.fromChunk = fromChunk;
+		this.toChunk = toChunk;
+		this.chunksPerTask = chunksPerTask;
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+		this.width = width;
+		this.aggregator = aggregator;
+	}
+
+	@Override
+	protected long[] compute() {
+		if (toChunk - fromChunk <= chunksPerTask) {
+			return scan();
+		}
+		int middle = (fromChunk + toChunk) >>> 1;
+		SalesScanTask left = new SalesScanTask(chunks, sizes, fromChunk, middle, chunksPerTask,
+				fromTime, toTime, width, aggregator);
+		SalesScanTask right = new SalesScanTask(chunks, sizes, middle, toChunk, chunksPerTask,
+				fromTime, toTime, width, aggregator);
+		left.fork();
+		long[] result = right.compute();
+		long[] other = left.join();
+		for (int i = 0; i < width; i++) {
+			result[i] += other[i];
+		}
+		return result;
+	}
+
+	private long[] scan() {
+		long[] accumulator = new long[width];
+		for (int c = fromChunk; c < toChunk; c++) {
+			SalesChunk chunk = chunks[c];
+			int size = sizes[c];
+			if (size == 0 || chunk.maxTime < fromTime || chunk.minTime >= toTime) {
+				continue;
+			}
+			long[] time = chunk.time;
+			if (chunk.minTime >= fromTime && chunk.maxTime < toTime) {
+				for (int row = 0; row < size; row++) {
+					aggregator.accumulate(chunk, row, accumulator);
+				}
+			} else {
+				for (int row = 0; row < size; row++) {
+					long at = time[row];
+					if (at >= fromTime && at < toTime) {
+						aggregator.accumulate(chunk, row, accumulator);
+					}
+				}
+			}
+		}
+		return accumulator;
+	}
+}
@@ -0,0 +1,154 @@
+package com.pos.pos.Catalog;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.pos.pos.Dto.ProductDto;
+import com.pos.pos.Model.NumberSeries;
+import com.pos.pos.Repository.NumberSeriesRepository;
+import com.pos.pos.Repository.ProductRepository;
+import com.pos.pos.Tenant.Shards;
+
+/**
+ * Pre-encoded full catalog for registers. The blob is built once per
+ * catalog version and then served as is, with an ETag so a register that
+ * already has the current catalog gets a 304. Each shard keeps its own
+ * catalog, so there is one blob per shard.
+ * <p>
+ * The version is a counter row in the shard's number_series table, bumped
+ * by {@link #invalidate()} in the transaction that changes products. Every
+ * instance compares it with the version of its blob, so a change made
+ * through one instance is picked up by all of them.
+ */
+@Component
+public class CatalogSnapshot {
+	static final String VERSION_KEY = "catalog";
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private NumberSeriesRepository numberSeriesRepository;
+
+	@Autowired
+	private Shards shards;
+
+	private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+	private final ObjectMapper jsonMapper = new ObjectMapper();
+	private final Map<String, ShardSnapshot> snapshots = new ConcurrentHashMap<>();
+
+	public Blob get() {
+		ShardSnapshot snapshot = snapshotOfCurrentShard();
+		// read before the products, so a blob is never labelled newer than its content
+		long wanted = storedVersion();
+		Blob blob = snapshot.current;
+		if (blob != null && blob.version() == wanted) {
+			return blob;
+		}
+		synchronized (snapshot) {
+			blob = snapshot.current;
+			if (blob == null || blob.version() != wanted) {
+				blob = build(wanted);
+				snapshot.current = blob;
+			}
+			return blob;
+		}
+	}
+
+	/**
+	 * Moves the current shard's catalog to a new version. Call it inside the
+	 * transaction that changes products, so the bump commits with them.
+	 */
+	public void invalidate() {
+		numberSeriesRepository.increment(VERSION_KEY);
+	}
+
+	/**
+	 * Whether an If-None-Match header matches the current ETag, per RFC 9110:
+	 * {@code *} matches anything, the header may list several tags, and tags
+	 * are compared weakly, ignoring a {@code W/} prefix.
+	 */
+	public static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null || etag == null) {
+			return false;
+		}
+		if (ifNoneMatch.trim().equals("*")) {
+			return true;
+		}
+		String opaque = opaqueTag(etag);
+		int i = 0;
+		int length = ifNoneMatch.length();
+		while (i < length) {
+			char c = ifNoneMatch.charAt(i);
+			if (c == ',' || c == ' ' || c == '\t') {
+				i++;
+				continue;
+			}
+			if (ifNoneMatch.startsWith("W/", i)) {
+				i += 2;
+			}
+			if (i >= length || ifNoneMatch.charAt(i) != '"') {
+				// not an entity-tag; nothing after it can be trusted
+				return false;
+			}
+			int end = ifNoneMatch.indexOf('"', i + 1);
+			if (end < 0) {
+				return false;
+			}
+			if (ifNoneMatch.substring(i, end + 1).equals(opaque)) {
+				return true;
+			}
+			i = end + 1;
+		}
+		return false;
+	}
+
+	private static String opaqueTag(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+
+	private long storedVersion() {
+		return numberSeriesRepository.findById(VERSION_KEY).map(NumberSeries::getNextValue).orElse(0L);
+	}
+
+	private ShardSnapshot snapshotOfCurrentShard() {
+		return snapshots.computeIfAbsent(shards.current(), shard -> new ShardSnapshot());
+	}
+
+	private Blob build(long forVersion) {
+		List<ProductDto> products = productRepository.findAll().stream().map(ProductDto::from).toList();
+		try {
+			byte[] smile = smileMapper.writeValueAsBytes(products);
+			byte[] json = jsonMapper.writeValueAsBytes(products);
+			return new Blob(forVersion, smile, "\"" + digest(smile) + "\"", json, "\"" + digest(json) + "\"");
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not encode catalog snapshot", e);
+		}
+	}
+
+	private static String digest(byte[] content) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+			return HexFormat.of().formatHex(hash, 0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class ShardSnapshot {
+		private volatile Blob current;
+	}
+
+	public record Blob(long version, byte[] smile, String smileEtag, byte[] json, String jsonEtag) {
+	}
+}
@@ -0,0 +1,70 @@
+package com.pos.pos.Catalog;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.pos.pos.Model.Category;
+import com.pos.pos.Model.Product;
+import com.pos.pos.Repository.ProductRepository;
+import com.pos.pos.Tenant.Shards;
+import com.pos.pos.Util.SingleFlight;
+
+/**
+ * Barcode lookups for the scan endpoints. Double-fired scans and registers
+ * hitting the same promo item share one query. Every caller of a shared
+ * lookup serializes the result on its own thread, so the shared value is a
+ * plain copy with its categories loaded, never the entity of the Session
+ * that ran the query. Lookups are keyed by shard as well, since each shard
+ * has its own catalog.
+ */
+@Component
+public class ScanLookup {
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private Shards shards;
+
+	private final SingleFlight<String, Product> lookups = new SingleFlight<>();
+
+	public Product find(String barCode) {
+		return lookups.execute(shards.current() + ":" + barCode, () -> detachedCopy(productRepository.findWithCategoriesByBarCode(barCode)));
+	}
+
+	static Product detachedCopy(Product product) {
+		if (product == null) {
+			return null;
+		}
+		Set<Category> categories = new HashSet<>();
+		if (product.getProductCategories() != null) {
+			for (Category category : product.getProductCategories()) {
+				// products is the inverse side; leaving it out also stops the JSON from recursing
+				categories.add(Category.builder()
+						.id(category.getId())
+						.name(category.getName())
+						.description(category.getDescription())
+						.createdAt(category.getCreatedAt())
+						.updatedAt(category.getUpdatedAt())
+						.build());
+			}
+		}
+		return Product.builder()
+				.id(product.getId())
+				.sku(product.getSku())
+				.brand(product.getBrand())
+				.name(product.getName())
+				.description(product.getDescription())
+				.barCode(product.getBarCode())
+				.measureUnit(product.getMeasureUnit())
+				.costPrice(product.getCostPrice())
+				.isActive(product.getIsActive())
+				.taxPercentage(product.getTaxPercentage())
+				.productCategories(categories)
+				.createdAt(product.getCreatedAt())
+				.updatedAt(product.getUpdatedAt())
+				.build();
+	}
+}
@@ -0,0 +1,40 @@
+package com.pos.pos.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Guards /api/admin/ with a shared secret sent as X-Admin-Token. The app
+ * port is published directly, so the nginx allow-list is not enough on its
+ * own. Without pos.admin.token the admin endpoints refuse every request.
+ */
+@Component
+public class AdminTokenInterceptor implements HandlerInterceptor {
+	public static final String TOKEN_HEADER = "X-Admin-Token";
+
+	@Value("${pos.admin.token:}")
+	private String token;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (token.isEmpty()) {
+			response.setStatus(HttpStatus.FORBIDDEN.value());
+			return false;
+		}
+		String given = request.getHeader(TOKEN_HEADER);
+		// constant time, so the token cannot be guessed byte by byte
+		if (given == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), given.getBytes(StandardCharsets.UTF_8))) {
+			response.setStatus(HttpStatus.UNAUTHORIZED.value());
+			return false;
+		}
+		return true;
+	}
+}
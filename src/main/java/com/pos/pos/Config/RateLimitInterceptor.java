@@ -0,0 +1,95 @@
+package com.pos.pos.Config;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.pos.pos.Tenant.TenantContext;
+import com.pos.pos.Util.TokenBucket;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * One token bucket per store and terminal, or per address for requests
+ * without a usable X-Terminal-Id. Terminal ids are picked by the client, so
+ * they only count when well formed and, if pos.rate-limit.known-terminals
+ * is set, listed there. The number of buckets is capped at
+ * pos.rate-limit.max-clients: past it, new clients share one bucket until
+ * the periodic sweep drops the idle ones.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+	public static final String TERMINAL_HEADER = "X-Terminal-Id";
+
+	private static final Pattern TERMINAL_ID = Pattern.compile("[A-Za-z0-9_-]{1,40}");
+	private static final String OVERFLOW = "*";
+	private static final long IDLE_MILLIS = 10 * 60 * 1000L;
+
+	private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+	@Value("${pos.rate-limit.capacity:20}")
+	private long capacity;
+
+	@Value("${pos.rate-limit.refill-per-second:10}")
+	private double refillPerSecond;
+
+	@Value("${pos.rate-limit.max-clients:10000}")
+	private int maxClients;
+
+	@Value("${pos.rate-limit.known-terminals:}")
+	private Set<String> knownTerminals;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (bucketFor(clientKey(request)).tryAcquire()) {
+			return true;
+		}
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader("Retry-After", "1");
+		return false;
+	}
+
+	@Scheduled(fixedDelayString = "${pos.rate-limit.sweep-interval-ms:60000}")
+	public void sweepIdle() {
+		long cutoff = System.currentTimeMillis() - IDLE_MILLIS;
+		buckets.values().removeIf(bucket -> bucket.getLastUsedMillis() < cutoff);
+	}
+
+	int size() {
+		return buckets.size();
+	}
+
+	private TokenBucket bucketFor(String client) {
+		TokenBucket bucket = buckets.get(client);
+		if (bucket != null) {
+			return bucket;
+		}
+		// checked before adding, so concurrent first requests can overshoot the cap by a few
+		String key = buckets.size() < maxClients ? client : TenantContext.current() + ":" + OVERFLOW;
+		return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond));
+	}
+
+	// terminal ids are only unique within a store
+	private String clientKey(HttpServletRequest request) {
+		String terminal = request.getHeader(TERMINAL_HEADER);
+		if (!isKnownTerminal(terminal)) {
+			terminal = request.getRemoteAddr();
+		}
+		return TenantContext.current() + ":" + terminal;
+	}
+
+	private boolean isKnownTerminal(String terminal) {
+		if (terminal == null || !TERMINAL_ID.matcher(terminal).matches()) {
+			return false;
+		}
+		return knownTerminals == null || knownTerminals.isEmpty() || knownTerminals.contains(terminal);
+	}
+}
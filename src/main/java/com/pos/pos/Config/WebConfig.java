@@ -0,0 +1,44 @@
+package com.pos.pos.Config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.ForwardedHeaderFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.pos.pos.Diagnostics.QueryStatsRequestInterceptor;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+	@Autowired
+	private RateLimitInterceptor rateLimitInterceptor;
+
+	@Autowired
+	private QueryStatsRequestInterceptor queryStatsRequestInterceptor;
+
+	@Autowired
+	private AdminTokenInterceptor adminTokenInterceptor;
+
+	// behind nginx getRemoteAddr() is always the proxy; this makes it the client's address again.
+	// Only with server.forward-headers-strategy=framework, set where every request comes through a
+	// trusted proxy: a client reaching the app directly could otherwise pick its own address.
+	@Bean
+	@ConditionalOnProperty(name = "server.forward-headers-strategy", havingValue = "framework")
+	public FilterRegistrationBean<ForwardedHeaderFilter> forwardedHeaderFilter() {
+		FilterRegistrationBean<ForwardedHeaderFilter> registration = new FilterRegistrationBean<>(new ForwardedHeaderFilter());
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(adminTokenInterceptor).addPathPatterns("/api/admin/**");
+		registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/products/**");
+		registry.addInterceptor(queryStatsRequestInterceptor).addPathPatterns("/api/**")
+				.excludePathPatterns("/api/admin/**");
+	}
+}
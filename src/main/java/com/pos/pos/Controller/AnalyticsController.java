@@ -0,0 +1,57 @@
+package com.pos.pos.Controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.pos.pos.Analytics.CategorySales;
+import com.pos.pos.Analytics.HourlySales;
+import com.pos.pos.Analytics.ProductSales;
+import com.pos.pos.Analytics.SalesFactLoader;
+
+@RestController
+@RequestMapping("api/analytics")
+public class AnalyticsController {
+	@Autowired
+	private SalesFactLoader salesFactLoader;
+
+	@GetMapping("/top-products")
+	public List<ProductSales> topProducts(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) Long categoryId,
+			@RequestParam(defaultValue = "10") int limit) {
+		return salesFactLoader.currentStore().topProducts(startOf(from), endOf(to), categoryId, limit);
+	}
+
+	@GetMapping("/top-products-by-category")
+	public List<CategorySales> topProductsByCategory(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(defaultValue = "5") int limit) {
+		return salesFactLoader.currentStore().topProductsByCategory(startOf(from), endOf(to), limit);
+	}
+
+	@GetMapping("/sales-by-hour")
+	public List<HourlySales> salesByHour(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return salesFactLoader.currentStore().salesByHourAndPaymentMethod(startOf(from), endOf(to));
+	}
+
+	private static LocalDateTime startOf(LocalDate date) {
+		return date == null ? null : date.atStartOfDay();
+	}
+
+	// "to" is inclusive for callers, the store takes an exclusive bound
+	private static LocalDateTime endOf(LocalDate date) {
+		return date == null ? null : date.plusDays(1).atStartOfDay();
+	}
+}
@@ -0,0 +1,27 @@
+package com.pos.pos.Controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.pos.pos.Event.StatusEventBroadcaster;
+import com.pos.pos.Tenant.TenantContext;
+
+@RestController
+@RequestMapping("api/events")
+public class EventController {
+	@Autowired
+	private StatusEventBroadcaster statusEventBroadcaster;
+
+	// EventSource sends Last-Event-ID on reconnect; the query param covers a fresh page load
+	@GetMapping(value = "/status", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter statusEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+		return statusEventBroadcaster.subscribe(TenantContext.current(), lastEventId != null ? lastEventId : lastEventIdParam);
+	}
+}
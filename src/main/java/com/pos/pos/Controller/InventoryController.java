@@ -1,18 +1,25 @@
 package com.pos.pos.Controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.pos.pos.Dto.InventoryDto;
+import com.pos.pos.Dto.WireFormat;
 import com.pos.pos.Repository.InventoryRepository;
 import com.pos.pos.Model.Inventory;
+import com.pos.pos.Tenant.TenantContext;
 
 @RestController
 @RequestMapping("api/inventories")
@@ -20,23 +27,46 @@ public class InventoryController {
 	@Autowired
 	private InventoryRepository inventoryRepository;
 
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
 	@GetMapping
 	public List<Inventory> list() {
-		return inventoryRepository.findAll();
+		return inventoryRepository.findAllByStoreId(TenantContext.current());
+	}
+
+	@GetMapping(produces = WireFormat.SMILE)
+	public List<InventoryDto> listCompact() {
+		return inventoryRepository.findAllByStoreId(TenantContext.current()).stream().map(InventoryDto::from).toList();
 	}
 
 	@PostMapping
 	public Inventory createInventory(Inventory inventory) {
+		inventory.setStoreId(TenantContext.current());
 		return inventoryRepository.save(inventory);
 	}
 
 	@GetMapping("/{id}")
 	public Inventory getInventory(@PathVariable Long id) {
-		return inventoryRepository.findById(id).orElseThrow(() -> new RuntimeException("Inventory not found"));
+		return inventoryRepository.findByIdAndStoreId(id, TenantContext.current())
+				.orElseThrow(() -> new RuntimeException("Inventory not found"));
+	}
+
+	// adds delta (negative for a sale) to the stock; it never goes below zero
+	@PostMapping("/{id}/adjust")
+	public Inventory adjustStock(@PathVariable Long id, @RequestParam int delta) {
+		return transactionTemplate.execute(tx -> {
+			Long storeId = TenantContext.current();
+			if (inventoryRepository.adjustQuantity(id, storeId, delta, LocalDateTime.now()) == 0) {
+				inventoryRepository.findByIdAndStoreId(id, storeId).orElseThrow(() -> new RuntimeException("Inventory not found"));
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough stock in inventory " + id);
+			}
+			return inventoryRepository.findByIdAndStoreId(id, storeId).orElseThrow();
+		});
 	}
 
 	@DeleteMapping("/{id}")
 	public void deleteInventory(@PathVariable Long id) {
-		inventoryRepository.deleteById(id);
+		inventoryRepository.findByIdAndStoreId(id, TenantContext.current()).ifPresent(inventoryRepository::delete);
 	}
 }
@@ -1,17 +1,37 @@
 package com.pos.pos.Controller;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.pos.pos.Analytics.SalesFactLoader;
+import com.pos.pos.Dto.InvoiceDto;
+import com.pos.pos.Event.StatusChangeEvent;
+import com.pos.pos.Event.StatusEventBroadcaster;
+import com.pos.pos.Idempotency.IdempotencyStore;
+import com.pos.pos.Numbering.NumberAllocator;
+import com.pos.pos.Outbox.OutboxWriter;
 import com.pos.pos.Repository.InvoiceRepository;
+import com.pos.pos.Repository.OrderRepository;
 import com.pos.pos.Model.Invoice;
+import com.pos.pos.Model.OutboxEvent;
+import com.pos.pos.Tenant.TenantContext;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("api/invoices")
@@ -19,23 +39,100 @@ public class InvoiceController {
 	@Autowired
 	private InvoiceRepository invoiceRepository;
 
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private StatusEventBroadcaster statusEventBroadcaster;
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired
+	private SalesFactLoader salesFactLoader;
+
+	@Autowired
+	private NumberAllocator numberAllocator;
+
+	@Autowired
+	private OutboxWriter outboxWriter;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
 	@GetMapping
 	public List<Invoice> list() {
-		return invoiceRepository.findAll();
+		return invoiceRepository.findAllByStoreId(TenantContext.current());
 	}
 
 	@PostMapping
-	public Invoice createInvoice(Invoice invoice) {
-		return invoiceRepository.save(invoice);
+	public ResponseEntity<?> createInvoice(
+			@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+			HttpServletRequest request, Invoice invoice) {
+		return idempotencyStore.execute("invoices", idempotencyKey, request, () -> saveInvoice(invoice));
+	}
+
+	private Invoice saveInvoice(Invoice invoice) {
+		invoice.setStoreId(TenantContext.current());
+		// only an order of the caller's store can be invoiced
+		if (invoice.getOrder() != null) {
+			Long orderId = invoice.getOrder().getId();
+			invoice.setOrder(orderId == null ? null : orderRepository.findByIdAndStoreId(orderId, TenantContext.current())
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found")));
+		}
+		Invoice saved = transactionTemplate.execute(tx -> {
+			// always ours, whatever the client sent; the fiscal series stays locked until this commits
+			invoice.setInvoiceNumber(numberAllocator.nextInvoiceNumber(invoice.getIssueDate()));
+			Invoice created = invoiceRepository.save(invoice);
+			String eventType = isIssued(created.getStatus()) ? OutboxEvent.INVOICE_ISSUED : OutboxEvent.INVOICE_CREATED;
+			outboxWriter.record(StatusChangeEvent.INVOICE, created.getId(), eventType, InvoiceDto.from(created));
+			return created;
+		});
+		statusEventBroadcaster.publish(saved.getStoreId(), StatusChangeEvent.INVOICE, saved.getId(), saved.getInvoiceNumber(), Objects.toString(saved.getStatus(), null));
+		return saved;
 	}
 
 	@GetMapping("/{id}")
 	public Invoice getInvoice(@PathVariable Long id) {
-		return invoiceRepository.findById(id).orElseThrow(() -> new RuntimeException("Invoice not found"));
+		return invoiceRepository.findByIdAndStoreId(id, TenantContext.current())
+				.orElseThrow(() -> new RuntimeException("Invoice not found"));
+	}
+
+	@PutMapping("/{id}/status")
+	public Invoice updateInvoiceStatus(@PathVariable Long id, @RequestParam Invoice.InvoiceStatus status) {
+		Invoice saved = transactionTemplate.execute(tx -> {
+			// locked so lines being added or removed reach sales analytics in commit order with this change
+			Invoice existingInvoice = invoiceRepository.findForUpdate(id, TenantContext.current())
+					.orElseThrow(() -> new RuntimeException("Invoice not found"));
+			Invoice.InvoiceStatus previous = existingInvoice.getStatus();
+			existingInvoice.setStatus(status);
+			Invoice updated = invoiceRepository.save(existingInvoice);
+			// leaving draft is when the invoice counts as issued
+			boolean issuing = isIssued(status) && (previous == null || previous == Invoice.InvoiceStatus.DRAFT);
+			outboxWriter.record(StatusChangeEvent.INVOICE, updated.getId(),
+					issuing ? OutboxEvent.INVOICE_ISSUED : OutboxEvent.INVOICE_STATUS_CHANGED, InvoiceDto.from(updated));
+			if (status == Invoice.InvoiceStatus.CANCELLED && previous != Invoice.InvoiceStatus.CANCELLED) {
+				salesFactLoader.reverseInvoice(updated.getId());
+			} else if (previous == Invoice.InvoiceStatus.CANCELLED && status != Invoice.InvoiceStatus.CANCELLED) {
+				salesFactLoader.restoreInvoice(updated.getId());
+			}
+			return updated;
+		});
+		statusEventBroadcaster.publish(saved.getStoreId(), StatusChangeEvent.INVOICE, saved.getId(), saved.getInvoiceNumber(), status.name());
+		return saved;
 	}
 
+	// numbered invoices are part of the fiscal series and are never removed, deleting one cancels it
 	@DeleteMapping("/{id}")
 	public void deleteInvoice(@PathVariable Long id) {
-		invoiceRepository.deleteById(id);
+		Invoice existingInvoice = invoiceRepository.findByIdAndStoreId(id, TenantContext.current()).orElse(null);
+		if (existingInvoice == null || existingInvoice.getStatus() == Invoice.InvoiceStatus.CANCELLED) {
+			return;
+		}
+		updateInvoiceStatus(id, Invoice.InvoiceStatus.CANCELLED);
+	}
+
+	private static boolean isIssued(Invoice.InvoiceStatus status) {
+		return status == Invoice.InvoiceStatus.ISSUED || status == Invoice.InvoiceStatus.PAID;
 	}
 }
@@ -3,6 +3,7 @@ package com.pos.pos.Controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,8 +11,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.pos.pos.Analytics.SalesFactLoader;
 import com.pos.pos.Repository.InvoiceItemRepository;
+import com.pos.pos.Repository.InvoiceRepository;
+import com.pos.pos.Model.Invoice;
 import com.pos.pos.Model.InvoiceItem;
+import com.pos.pos.Tenant.TenantContext;
 
 @RestController
 @RequestMapping("api/invoice-items")
@@ -19,23 +24,47 @@ public class InvoiceItemController {
 	@Autowired
 	private InvoiceItemRepository invoiceItemRepository;
 
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private SalesFactLoader salesFactLoader;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
 	@GetMapping
 	public List<InvoiceItem> list() {
-		return invoiceItemRepository.findAll();
+		return invoiceItemRepository.findAllByInvoiceStoreId(TenantContext.current());
 	}
 
 	@PostMapping
 	public InvoiceItem createInvoiceItem(InvoiceItem invoiceItem) {
-		return invoiceItemRepository.save(invoiceItem);
+		Long invoiceId = invoiceItem.getInvoice() == null ? null : invoiceItem.getInvoice().getId();
+		return transactionTemplate.execute(tx -> {
+			// only lines for an invoice of the caller's store
+			Invoice invoice = invoiceId == null ? null : invoiceRepository.findForShare(invoiceId, TenantContext.current()).orElse(null);
+			if (invoice == null) {
+				throw new RuntimeException("Invoice not found");
+			}
+			invoiceItem.setInvoice(invoice);
+			InvoiceItem saved = invoiceItemRepository.saveAndFlush(invoiceItem);
+			salesFactLoader.recordItem(saved.getId());
+			return saved;
+		});
 	}
 
 	@GetMapping("/{id}")
 	public InvoiceItem getInvoiceItem(@PathVariable Long id) {
-		return invoiceItemRepository.findById(id).orElseThrow(() -> new RuntimeException("InvoiceItem not found"));
+		return invoiceItemRepository.findByIdAndInvoiceStoreId(id, TenantContext.current()).orElseThrow(() -> new RuntimeException("InvoiceItem not found"));
 	}
 
 	@DeleteMapping("/{id}")
 	public void deleteInvoiceItem(@PathVariable Long id) {
-		invoiceItemRepository.deleteById(id);
+		transactionTemplate.executeWithoutResult(tx -> invoiceItemRepository.findByIdAndInvoiceStoreId(id, TenantContext.current()).ifPresent(item -> {
+			invoiceRepository.findForShare(item.getInvoice().getId(), TenantContext.current());
+			salesFactLoader.retractItem(item.getId());
+			invoiceItemRepository.delete(item);
+		}));
 	}
 }
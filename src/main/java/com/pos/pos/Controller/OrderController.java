@@ -1,17 +1,42 @@
 package com.pos.pos.Controller;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.pos.pos.Config.RateLimitInterceptor;
+import com.pos.pos.Dto.OrderDto;
+import com.pos.pos.Dto.OrderItemDto;
+import com.pos.pos.Dto.WireFormat;
+import com.pos.pos.Event.StatusChangeEvent;
+import com.pos.pos.Event.StatusEventBroadcaster;
+import com.pos.pos.Idempotency.IdempotencyStore;
+import com.pos.pos.Numbering.NumberAllocator;
+import com.pos.pos.Outbox.OutboxWriter;
 import com.pos.pos.Repository.OrderRepository;
+import com.pos.pos.Repository.ProductRepository;
 import com.pos.pos.Model.Order;
+import com.pos.pos.Model.OrderItem;
+import com.pos.pos.Model.OutboxEvent;
+import com.pos.pos.Tenant.TenantContext;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("api/orders")
@@ -19,23 +44,126 @@ public class OrderController {
 	@Autowired
 	private OrderRepository orderRepository;
 
+	@Autowired
+	private StatusEventBroadcaster statusEventBroadcaster;
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private NumberAllocator numberAllocator;
+
+	@Autowired
+	private OutboxWriter outboxWriter;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
 	@GetMapping
 	public List<Order> list() {
-		return orderRepository.findAll();
+		return orderRepository.findAllByStoreId(TenantContext.current());
+	}
+
+	@GetMapping(produces = WireFormat.SMILE)
+	public List<OrderDto> listCompact() {
+		return orderRepository.findWithItemsByStoreId(TenantContext.current()).stream().map(OrderDto::from).toList();
 	}
 
 	@PostMapping
-	public Order createOrder(Order Order) {
-		return orderRepository.save(Order);
+	public ResponseEntity<?> createOrder(
+			@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+			@RequestHeader(value = RateLimitInterceptor.TERMINAL_HEADER, required = false) String terminal,
+			HttpServletRequest request, Order order) {
+		return idempotencyStore.execute("orders", idempotencyKey, request, () -> saveOrder(order, terminal));
+	}
+
+	@PostMapping(consumes = WireFormat.SMILE, produces = WireFormat.SMILE)
+	public OrderDto createOrderCompact(
+			@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+			@RequestHeader(value = RateLimitInterceptor.TERMINAL_HEADER, required = false) String terminal,
+			@RequestBody OrderDto order) {
+		return idempotencyStore.execute("orders-compact", idempotencyKey, order, OrderDto.class,
+				() -> OrderDto.from(saveOrder(toEntity(order), terminal)));
+	}
+
+	private Order saveOrder(Order order, String terminal) {
+		order.setStoreId(TenantContext.current());
+		// always ours, whatever the client sent
+		order.setOrderNumber(numberAllocator.nextOrderNumber(terminal));
+		Order saved = transactionTemplate.execute(tx -> {
+			Order created = orderRepository.save(order);
+			outboxWriter.record(StatusChangeEvent.ORDER, created.getId(), OutboxEvent.ORDER_CREATED, OrderDto.from(created));
+			return created;
+		});
+		statusEventBroadcaster.publish(saved.getStoreId(), StatusChangeEvent.ORDER, saved.getId(), saved.getOrderNumber(), Objects.toString(saved.getStatus(), null));
+		return saved;
 	}
 
 	@GetMapping("/{id}")
 	public Order getOrder(@PathVariable Long id) {
-		return orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
+		return orderRepository.findByIdAndStoreId(id, TenantContext.current())
+				.orElseThrow(() -> new RuntimeException("Order not found"));
+	}
+
+	@PutMapping("/{id}/status")
+	public Order updateOrderStatus(@PathVariable Long id, @RequestParam Order.OrderStatus status) {
+		Order saved = transactionTemplate.execute(tx -> {
+			Order existingOrder = orderRepository.findByIdAndStoreId(id, TenantContext.current())
+					.orElseThrow(() -> new RuntimeException("Order not found"));
+			existingOrder.setStatus(status);
+			Order updated = orderRepository.save(existingOrder);
+			outboxWriter.record(StatusChangeEvent.ORDER, updated.getId(), OutboxEvent.ORDER_STATUS_CHANGED, OrderDto.from(updated));
+			return updated;
+		});
+		statusEventBroadcaster.publish(saved.getStoreId(), StatusChangeEvent.ORDER, saved.getId(), saved.getOrderNumber(), status.name());
+		return saved;
 	}
 
 	@DeleteMapping("/{id}")
 	public void deleteOrder(@PathVariable Long id) {
-		orderRepository.deleteById(id);
+		Order existingOrder = transactionTemplate.execute(tx -> {
+			Order found = orderRepository.findByIdAndStoreId(id, TenantContext.current()).orElse(null);
+			// the invoice is part of the fiscal series and has to outlive its order
+			if (found != null && found.getInvoice() != null) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "Order " + id + " has an invoice and cannot be deleted");
+			}
+			if (found != null) {
+				outboxWriter.record(StatusChangeEvent.ORDER, id, OutboxEvent.ORDER_DELETED, OrderDto.from(found));
+				orderRepository.delete(found);
+			}
+			return found;
+		});
+		if (existingOrder == null) {
+			return;
+		}
+		statusEventBroadcaster.publish(existingOrder.getStoreId(), StatusChangeEvent.ORDER, id, null, StatusChangeEvent.DELETED);
+	}
+
+	private Order toEntity(OrderDto dto) {
+		Order order = Order.builder()
+				.status(dto.status() != null ? dto.status() : Order.OrderStatus.PENDING)
+				.subtotal(dto.subtotal())
+				.taxAmount(dto.taxAmount() != null ? dto.taxAmount() : 0.0)
+				.shippingAmount(dto.shippingAmount() != null ? dto.shippingAmount() : 0.0)
+				.totalAmount(dto.totalAmount())
+				.notes(dto.notes())
+				.build();
+		List<OrderItem> items = new ArrayList<>();
+		if (dto.items() != null) {
+			for (OrderItemDto item : dto.items()) {
+				items.add(OrderItem.builder()
+						.order(order)
+						.product(productRepository.getReferenceById(item.productId()))
+						.quantity(item.quantity())
+						.unitPrice(item.unitPrice())
+						.totalPrice(item.totalPrice())
+						.build());
+			}
+		}
+		order.setOrderItems(items);
+		return order;
 	}
 }
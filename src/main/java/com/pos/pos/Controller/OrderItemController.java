@@ -11,7 +11,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.pos.pos.Repository.OrderItemRepository;
+import com.pos.pos.Repository.OrderRepository;
+import com.pos.pos.Model.Order;
 import com.pos.pos.Model.OrderItem;
+import com.pos.pos.Tenant.TenantContext;
 
 @RestController
 @RequestMapping("api/order-items")
@@ -19,23 +22,33 @@ public class OrderItemController {
 	@Autowired
 	private OrderItemRepository orderItemRepository;
 
+	@Autowired
+	private OrderRepository orderRepository;
+
 	@GetMapping
 	public List<OrderItem> list() {
-		return orderItemRepository.findAll();
+		return orderItemRepository.findAllByOrderStoreId(TenantContext.current());
 	}
 
 	@PostMapping
 	public OrderItem createOrderItem(OrderItem OrderItem) {
+		Long orderId = OrderItem.getOrder() == null ? null : OrderItem.getOrder().getId();
+		// only lines for an order of the caller's store
+		Order order = orderId == null ? null : orderRepository.findByIdAndStoreId(orderId, TenantContext.current()).orElse(null);
+		if (order == null) {
+			throw new RuntimeException("Order not found");
+		}
+		OrderItem.setOrder(order);
 		return orderItemRepository.save(OrderItem);
 	}
 
 	@GetMapping("/{id}")
 	public OrderItem getOrderItem(@PathVariable Long id) {
-		return orderItemRepository.findById(id).orElseThrow(() -> new RuntimeException("OrderItem not found"));
+		return orderItemRepository.findByIdAndOrderStoreId(id, TenantContext.current()).orElseThrow(() -> new RuntimeException("OrderItem not found"));
 	}
 
 	@DeleteMapping("/{id}")
 	public void deleteOrderItem(@PathVariable Long id) {
-		orderItemRepository.deleteById(id);
+		orderItemRepository.findByIdAndOrderStoreId(id, TenantContext.current()).ifPresent(orderItemRepository::delete);
 	}
 }
@@ -3,14 +3,23 @@ package com.pos.pos.Controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.pos.pos.Catalog.CatalogSnapshot;
+import com.pos.pos.Catalog.ScanLookup;
+import com.pos.pos.Dto.ProductDto;
+import com.pos.pos.Dto.WireFormat;
 import com.pos.pos.Repository.ProductRepository;
 import com.pos.pos.Model.Product;
 
@@ -20,42 +29,96 @@ public class ProductController {
 	@Autowired
 	private ProductRepository productRepository;
 
+	@Autowired
+	private CatalogSnapshot catalogSnapshot;
+
+	@Autowired
+	private ScanLookup scanLookup;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
 	@GetMapping
 	public List<Product> list() {
 		return productRepository.findAll();
 	}
 
+	@GetMapping(produces = WireFormat.SMILE)
+	public ResponseEntity<byte[]> listCompact(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+		return catalogResponse(ifNoneMatch, true);
+	}
+
+	@GetMapping(value = "/catalog", produces = WireFormat.SMILE)
+	public ResponseEntity<byte[]> catalogSmile(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+		return catalogResponse(ifNoneMatch, true);
+	}
+
+	@GetMapping("/catalog")
+	public ResponseEntity<byte[]> catalogJson(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+		return catalogResponse(ifNoneMatch, false);
+	}
+
 	@GetMapping("/{barCode}")
 	public Product scanProduct(@PathVariable String barCode) {
-		return productRepository.findByBarCode(barCode);
+		return scanLookup.find(barCode);
+	}
+
+	@GetMapping(value = "/{barCode}", produces = WireFormat.SMILE)
+	public ProductDto scanProductCompact(@PathVariable String barCode) {
+		Product product = scanLookup.find(barCode);
+		return product == null ? null : ProductDto.from(product);
 	}
 
 	@PostMapping
 	public Product createProduct(Product product) {
-		if (!productRepository.existsByBarCode(product.barCode)) {
+		if (productRepository.existsByBarCode(product.barCode)) {
 			throw new Error("Bar Code Already Exist");
 
 		} else {
 
-			return productRepository.save(product);
+			return transactionTemplate.execute(tx -> {
+				Product saved = productRepository.save(product);
+				catalogSnapshot.invalidate();
+				return saved;
+			});
 		}
 	}
 
-	@GetMapping("/{id}")
+	// "/{id}" would be ambiguous with the scan endpoint
+	@GetMapping("/id/{id}")
 	public Product getProduct(@PathVariable Long id) {
 		return productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
 	}
 
 	@PutMapping("/{id}")
 	public Product updateProduct(@PathVariable Long id, Product product) {
-		Product existingProduct = productRepository.findById(id)
-				.orElseThrow(() -> new RuntimeException("Product not found"));
-		existingProduct.setName(product.getName());
-		return productRepository.save(existingProduct);
+		return transactionTemplate.execute(tx -> {
+			Product existingProduct = productRepository.findById(id)
+					.orElseThrow(() -> new RuntimeException("Product not found"));
+			existingProduct.setName(product.getName());
+			Product saved = productRepository.save(existingProduct);
+			catalogSnapshot.invalidate();
+			return saved;
+		});
 	}
 
 	@DeleteMapping("/{id}")
 	public void deleteProduct(@PathVariable Long id) {
-		productRepository.deleteById(id);
+		transactionTemplate.executeWithoutResult(tx -> {
+			productRepository.deleteById(id);
+			catalogSnapshot.invalidate();
+		});
+	}
+
+	private ResponseEntity<byte[]> catalogResponse(String ifNoneMatch, boolean smile) {
+		CatalogSnapshot.Blob blob = catalogSnapshot.get();
+		String etag = smile ? blob.smileEtag() : blob.jsonEtag();
+		if (CatalogSnapshot.matches(ifNoneMatch, etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+		}
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.contentType(smile ? MediaType.parseMediaType(WireFormat.SMILE) : MediaType.APPLICATION_JSON)
+				.body(smile ? blob.smile() : blob.json());
 	}
 }
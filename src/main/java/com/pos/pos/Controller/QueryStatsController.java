@@ -0,0 +1,99 @@
+package com.pos.pos.Controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.pos.pos.Diagnostics.HibernateQueryStats;
+import com.pos.pos.Diagnostics.QueryStats;
+import com.pos.pos.Diagnostics.QueryStatsReport;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@RestController
+@RequestMapping("api/admin/query-stats")
+public class QueryStatsController {
+	@Autowired
+	private QueryStats queryStats;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@GetMapping
+	public QueryStatsReport report(
+			@RequestParam(defaultValue = "10") int limit,
+			@RequestParam(defaultValue = "p99") String sort) {
+		if (!QueryStats.SORTS.contains(sort)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort " + sort + ", use one of " + QueryStats.SORTS);
+		}
+		Statistics statistics = hibernateStatistics();
+		boolean hibernateEnabled = statistics.isStatisticsEnabled();
+		return new QueryStatsReport(
+				queryStats.isEnabled(),
+				hibernateEnabled,
+				queryStats.getSlowQueryMillis(),
+				queryStats.getNPlusOneThreshold(),
+				queryStats.slowestMethods(limit, sort),
+				queryStats.topStatements(limit, sort),
+				queryStats.recentWarnings(),
+				hibernateEnabled ? slowestHibernateQueries(statistics, limit) : List.of(),
+				statistics.getEntityFetchCount(),
+				statistics.getCollectionFetchCount());
+	}
+
+	// only the given settings change, the rest keep their current value
+	@PutMapping
+	public QueryStatsReport update(
+			@RequestParam(required = false) Boolean enabled,
+			@RequestParam(required = false) Boolean hibernateStatistics,
+			@RequestParam(required = false) Long slowQueryMillis,
+			@RequestParam(required = false) Integer nPlusOneThreshold) {
+		if (enabled != null) {
+			queryStats.setEnabled(enabled);
+		}
+		if (hibernateStatistics != null) {
+			hibernateStatistics().setStatisticsEnabled(hibernateStatistics);
+		}
+		if (slowQueryMillis != null) {
+			queryStats.setSlowQueryMillis(slowQueryMillis);
+		}
+		if (nPlusOneThreshold != null) {
+			queryStats.setNPlusOneThreshold(nPlusOneThreshold);
+		}
+		return report(10, "p99");
+	}
+
+	@DeleteMapping
+	public void reset() {
+		queryStats.reset();
+		hibernateStatistics().clear();
+	}
+
+	private Statistics hibernateStatistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	private static List<HibernateQueryStats> slowestHibernateQueries(Statistics statistics, int limit) {
+		List<HibernateQueryStats> result = new ArrayList<>();
+		for (String query : statistics.getQueries()) {
+			QueryStatistics stats = statistics.getQueryStatistics(query);
+			result.add(new HibernateQueryStats(query, stats.getExecutionCount(), stats.getExecutionRowCount(),
+					stats.getExecutionAvgTime(), stats.getExecutionMaxTime()));
+		}
+		result.sort(Comparator.comparingLong(HibernateQueryStats::maxMillis).reversed());
+		return result.size() > limit ? result.subList(0, limit) : result;
+	}
+}
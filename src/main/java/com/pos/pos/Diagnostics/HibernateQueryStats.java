@@ -0,0 +1,4 @@
+package com.pos.pos.Diagnostics;
+
+public record HibernateQueryStats(String query, long executions, long rows, long avgMillis, long maxMillis) {
+}
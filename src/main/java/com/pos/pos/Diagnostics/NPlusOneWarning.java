@@ -0,0 +1,6 @@
+package com.pos.pos.Diagnostics;
+
+import java.time.LocalDateTime;
+
+public record NPlusOneWarning(LocalDateTime at, String request, String sql, int executions) {
+}
@@ -0,0 +1,324 @@
+package com.pos.pos.Diagnostics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.BaseStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import com.pos.pos.Util.LatencyHistogram;
+
+/**
+ * Collects timings per repository method and per SQL shape, and flags SQL
+ * repeated many times in one request as a likely N+1 load. The
+ * counters are lock-free so collection can stay on under load; everything
+ * is switched at runtime through /api/admin/query-stats.
+ */
+@Component
+public class QueryStats {
+	public static final List<String> SORTS = List.of("p99", "max", "mean", "total", "calls");
+
+	private static final Logger log = LoggerFactory.getLogger(QueryStats.class);
+	private static final int MAX_STATEMENTS = 1000;
+	private static final int MAX_SQL_SAMPLES = 5;
+	private static final int MAX_WARNINGS = 100;
+	private static final String OTHER_STATEMENTS = "(other statements)";
+
+	private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+	private final Map<String, SqlStats> statements = new ConcurrentHashMap<>();
+	private final Deque<NPlusOneWarning> warnings = new ArrayDeque<>();
+
+	private final ThreadLocal<Frame> currentFrame = new ThreadLocal<>();
+	private final ThreadLocal<RequestTrace> currentRequest = new ThreadLocal<>();
+
+	private volatile boolean enabled;
+	private volatile long slowQueryNanos;
+	private volatile int nPlusOneThreshold;
+
+	public QueryStats(
+			@Value("${pos.query-stats.enabled:false}") boolean enabled,
+			@Value("${pos.query-stats.slow-query-ms:200}") long slowQueryMillis,
+			@Value("${pos.query-stats.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+		this.enabled = enabled;
+		setSlowQueryMillis(slowQueryMillis);
+		setNPlusOneThreshold(nPlusOneThreshold);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getSlowQueryMillis() {
+		return slowQueryNanos / 1_000_000;
+	}
+
+	// 0 turns the slow-query log off
+	public void setSlowQueryMillis(long slowQueryMillis) {
+		this.slowQueryNanos = Math.max(0, slowQueryMillis) * 1_000_000;
+	}
+
+	public int getNPlusOneThreshold() {
+		return nPlusOneThreshold;
+	}
+
+	public void setNPlusOneThreshold(int nPlusOneThreshold) {
+		this.nPlusOneThreshold = Math.max(2, nPlusOneThreshold);
+	}
+
+	Frame enter(String method) {
+		Frame frame = new Frame(method, currentFrame.get());
+		currentFrame.set(frame);
+		return frame;
+	}
+
+	void exit(Frame frame, long nanos, Object result, boolean failed) {
+		if (frame.parent != null) {
+			currentFrame.set(frame.parent);
+		} else {
+			currentFrame.remove();
+		}
+		MethodStats stats = methods.computeIfAbsent(frame.method, k -> new MethodStats());
+		stats.latency.record(nanos);
+		stats.rows.add(rowCount(result));
+		stats.statements.add(frame.statements);
+		if (failed) {
+			stats.errors.increment();
+		}
+		long threshold = slowQueryNanos;
+		if (threshold > 0 && nanos >= threshold) {
+			log.warn("Slow repository call {} took {} ms with {} statements: {}", frame.method, nanos / 1_000_000,
+					frame.statements, frame.firstSql);
+		}
+	}
+
+	// called by Hibernate for every statement it prepares, including lazy loads
+	void onStatement(String sql) {
+		if (!enabled) {
+			return;
+		}
+		String shape = SqlNormalizer.normalize(sql);
+		sqlStatsFor(shape).executions.increment();
+
+		Frame frame = currentFrame.get();
+		if (frame != null) {
+			frame.statements++;
+			if (frame.firstSql == null) {
+				frame.firstSql = shape;
+			}
+			Set<String> samples = methods.computeIfAbsent(frame.method, k -> new MethodStats()).sql;
+			if (samples.size() < MAX_SQL_SAMPLES) {
+				samples.add(shape);
+			}
+		}
+		RequestTrace request = currentRequest.get();
+		if (request != null) {
+			request.executions.merge(shape, 1, Integer::sum);
+		}
+	}
+
+	// called by TimedDataSource with the time the driver took to execute the statement
+	void onExecution(String sql, long nanos, boolean failed) {
+		if (!enabled || sql == null) {
+			return;
+		}
+		SqlStats sqlStats = sqlStatsFor(SqlNormalizer.normalize(sql));
+		sqlStats.latency.record(nanos);
+		if (failed) {
+			sqlStats.errors.increment();
+		}
+	}
+
+	private SqlStats sqlStatsFor(String shape) {
+		SqlStats sqlStats = statements.get(shape);
+		if (sqlStats == null) {
+			sqlStats = statements.size() < MAX_STATEMENTS
+					? statements.computeIfAbsent(shape, k -> new SqlStats())
+					: statements.computeIfAbsent(OTHER_STATEMENTS, k -> new SqlStats());
+		}
+		return sqlStats;
+	}
+
+	void beginRequest(String name) {
+		if (enabled) {
+			currentRequest.set(new RequestTrace(name));
+		}
+	}
+
+	void endRequest() {
+		RequestTrace request = currentRequest.get();
+		if (request == null) {
+			return;
+		}
+		currentRequest.remove();
+		int threshold = nPlusOneThreshold;
+		request.executions.forEach((sql, count) -> {
+			if (count < threshold) {
+				return;
+			}
+			log.warn("Possible N+1: {} ran the same statement {} times: {}", request.name, count, sql);
+			SqlStats sqlStats = statements.get(sql);
+			if (sqlStats != null) {
+				sqlStats.nPlusOneWarnings.increment();
+			}
+			synchronized (warnings) {
+				if (warnings.size() == MAX_WARNINGS) {
+					warnings.removeFirst();
+				}
+				warnings.addLast(new NPlusOneWarning(LocalDateTime.now(), request.name, sql, count));
+			}
+		});
+	}
+
+	/**
+	 * @param sort one of p99, max, mean, total, calls
+	 */
+	public List<RepositoryMethodStats> slowestMethods(int limit, String sort) {
+		Comparator<RepositoryMethodStats> order = switch (sort == null ? "p99" : sort) {
+			case "max" -> Comparator.comparingDouble(RepositoryMethodStats::maxMillis);
+			case "mean" -> Comparator.comparingDouble(RepositoryMethodStats::meanMillis);
+			case "total" -> Comparator.comparingDouble(RepositoryMethodStats::totalMillis);
+			case "calls" -> Comparator.comparingLong(RepositoryMethodStats::calls);
+			case "p99" -> Comparator.comparingDouble(RepositoryMethodStats::p99Millis);
+			default -> throw new IllegalArgumentException("Unknown sort " + sort + ", use p99, max, mean, total or calls");
+		};
+		List<RepositoryMethodStats> result = new ArrayList<>();
+		methods.forEach((method, stats) -> {
+			long calls = stats.latency.getCount();
+			if (calls == 0) {
+				return;
+			}
+			result.add(new RepositoryMethodStats(method, calls, stats.errors.sum(),
+					millis(stats.latency.getSum()),
+					stats.latency.getMean() / 1_000_000,
+					millis(stats.latency.getValueAtPercentile(50)),
+					millis(stats.latency.getValueAtPercentile(99)),
+					millis(stats.latency.getMax()),
+					stats.rows.sum(),
+					(double) stats.statements.sum() / calls,
+					List.copyOf(stats.sql)));
+		});
+		result.sort(order.reversed());
+		return result.size() > limit ? result.subList(0, limit) : result;
+	}
+
+	/**
+	 * @param sort one of p99, max, mean, total, calls; times are measured at the JDBC driver
+	 */
+	public List<StatementStats> topStatements(int limit, String sort) {
+		Comparator<StatementStats> order = switch (sort == null ? "p99" : sort) {
+			case "max" -> Comparator.comparingDouble(StatementStats::maxMillis);
+			case "mean" -> Comparator.comparingDouble(StatementStats::meanMillis);
+			case "total" -> Comparator.comparingDouble(StatementStats::totalMillis);
+			case "calls" -> Comparator.comparingLong(StatementStats::executions);
+			case "p99" -> Comparator.comparingDouble(StatementStats::p99Millis);
+			default -> throw new IllegalArgumentException("Unknown sort " + sort + ", use p99, max, mean, total or calls");
+		};
+		List<StatementStats> result = new ArrayList<>();
+		statements.forEach((sql, stats) -> result.add(new StatementStats(sql,
+				stats.executions.sum(),
+				stats.latency.getCount(),
+				stats.errors.sum(),
+				millis(stats.latency.getSum()),
+				stats.latency.getMean() / 1_000_000,
+				millis(stats.latency.getValueAtPercentile(50)),
+				millis(stats.latency.getValueAtPercentile(99)),
+				millis(stats.latency.getMax()),
+				stats.nPlusOneWarnings.sum())));
+		result.sort(order.reversed());
+		return result.size() > limit ? result.subList(0, limit) : result;
+	}
+
+	public List<NPlusOneWarning> recentWarnings() {
+		synchronized (warnings) {
+			return new ArrayList<>(warnings);
+		}
+	}
+
+	public void reset() {
+		methods.clear();
+		statements.clear();
+		synchronized (warnings) {
+			warnings.clear();
+		}
+	}
+
+	private static long rowCount(Object result) {
+		if (result == null) {
+			return 0;
+		}
+		if (result instanceof Collection<?> collection) {
+			return collection.size();
+		}
+		if (result instanceof Slice<?> slice) {
+			return slice.getNumberOfElements();
+		}
+		if (result instanceof Optional<?> optional) {
+			return optional.isPresent() ? 1 : 0;
+		}
+		// streams are consumed after the call returns, so their rows are not known here
+		if (result instanceof BaseStream<?, ?>) {
+			return 0;
+		}
+		return 1;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	static final class Frame {
+		private final String method;
+		private final Frame parent;
+		private int statements;
+		private String firstSql;
+
+		private Frame(String method, Frame parent) {
+			this.method = method;
+			this.parent = parent;
+		}
+	}
+
+	private static final class MethodStats {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder rows = new LongAdder();
+		private final LongAdder statements = new LongAdder();
+		private final Set<String> sql = ConcurrentHashMap.newKeySet();
+	}
+
+	private static final class SqlStats {
+		// prepared by Hibernate
+		private final LongAdder executions = new LongAdder();
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder nPlusOneWarnings = new LongAdder();
+	}
+
+	private static final class RequestTrace {
+		private final String name;
+		private final Map<String, Integer> executions = new HashMap<>();
+
+		private RequestTrace(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.pos.pos.Diagnostics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks {@link QueryStats} into Hibernate, Spring Data and JDBC. The hooks
+ * are always installed and cost a volatile read while collection is off.
+ */
+@Configuration
+public class QueryStatsConfig {
+	// static so the post-processor is registered before the repositories are created
+	@Bean
+	static RepositoryTimingPostProcessor repositoryTimingPostProcessor(ObjectProvider<QueryStats> queryStats) {
+		return new RepositoryTimingPostProcessor(queryStats);
+	}
+
+	@Bean
+	static TimedDataSourcePostProcessor timedDataSourcePostProcessor(ObjectProvider<QueryStats> queryStats) {
+		return new TimedDataSourcePostProcessor(queryStats);
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer queryStatsHibernateProperties(QueryStats queryStats,
+			@Value("${pos.query-stats.hibernate-statistics:false}") boolean hibernateStatistics) {
+		return properties -> {
+			properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryStatsInspector(queryStats));
+			properties.put(AvailableSettings.GENERATE_STATISTICS, hibernateStatistics);
+		};
+	}
+}
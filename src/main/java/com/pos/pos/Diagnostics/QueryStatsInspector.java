@@ -0,0 +1,21 @@
+package com.pos.pos.Diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Sees every SQL statement Hibernate prepares and reports it to
+ * {@link QueryStats}. Returns the SQL unchanged.
+ */
+class QueryStatsInspector implements StatementInspector {
+	private final QueryStats queryStats;
+
+	QueryStatsInspector(QueryStats queryStats) {
+		this.queryStats = queryStats;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		queryStats.onStatement(sql);
+		return sql;
+	}
+}
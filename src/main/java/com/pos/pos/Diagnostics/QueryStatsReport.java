@@ -0,0 +1,16 @@
+package com.pos.pos.Diagnostics;
+
+import java.util.List;
+
+public record QueryStatsReport(
+		boolean enabled,
+		boolean hibernateStatistics,
+		long slowQueryMillis,
+		int nPlusOneThreshold,
+		List<RepositoryMethodStats> slowestMethods,
+		List<StatementStats> statements,
+		List<NPlusOneWarning> nPlusOneWarnings,
+		List<HibernateQueryStats> hibernateQueries,
+		long entityFetches,
+		long collectionFetches) {
+}
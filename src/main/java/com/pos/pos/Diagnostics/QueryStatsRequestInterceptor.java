@@ -0,0 +1,38 @@
+package com.pos.pos.Diagnostics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Marks where a request starts and ends so {@link QueryStats} can spot the
+ * same statement repeated within it, lazy loads during serialization
+ * included.
+ */
+@Component
+public class QueryStatsRequestInterceptor implements AsyncHandlerInterceptor {
+	@Autowired
+	private QueryStats queryStats;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		queryStats.beginRequest(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()));
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		queryStats.endRequest();
+	}
+
+	// streaming responses finish on another thread, stop tracing this one now
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		queryStats.endRequest();
+	}
+}
@@ -0,0 +1,17 @@
+package com.pos.pos.Diagnostics;
+
+import java.util.List;
+
+public record RepositoryMethodStats(
+		String method,
+		long calls,
+		long errors,
+		double totalMillis,
+		double meanMillis,
+		double p50Millis,
+		double p99Millis,
+		double maxMillis,
+		long rows,
+		double statementsPerCall,
+		List<String> sql) {
+}
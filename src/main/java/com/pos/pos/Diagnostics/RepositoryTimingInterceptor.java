@@ -0,0 +1,49 @@
+package com.pos.pos.Diagnostics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Times one repository method call and attributes the SQL Hibernate runs
+ * during it to that method.
+ */
+class RepositoryTimingInterceptor implements MethodInterceptor {
+	private final String repositoryName;
+	private final ObjectProvider<QueryStats> queryStatsProvider;
+	private volatile QueryStats queryStats;
+
+	RepositoryTimingInterceptor(Class<?> repositoryInterface, ObjectProvider<QueryStats> queryStatsProvider) {
+		this.repositoryName = repositoryInterface.getSimpleName();
+		this.queryStatsProvider = queryStatsProvider;
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		QueryStats stats = queryStats();
+		if (!stats.isEnabled()) {
+			return invocation.proceed();
+		}
+		QueryStats.Frame frame = stats.enter(repositoryName + "." + invocation.getMethod().getName());
+		long start = System.nanoTime();
+		Object result = null;
+		boolean failed = true;
+		try {
+			result = invocation.proceed();
+			failed = false;
+			return result;
+		} finally {
+			stats.exit(frame, System.nanoTime() - start, result, failed);
+		}
+	}
+
+	// repositories are built before the stats bean is ready, so look it up on first use
+	private QueryStats queryStats() {
+		QueryStats stats = queryStats;
+		if (stats == null) {
+			stats = queryStatsProvider.getObject();
+			queryStats = stats;
+		}
+		return stats;
+	}
+}
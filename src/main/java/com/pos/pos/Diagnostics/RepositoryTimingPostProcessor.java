@@ -0,0 +1,27 @@
+package com.pos.pos.Diagnostics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds {@link RepositoryTimingInterceptor} to every Spring Data repository,
+ * outside the transaction advice so commit time counts too.
+ */
+class RepositoryTimingPostProcessor implements BeanPostProcessor {
+	private final ObjectProvider<QueryStats> queryStats;
+
+	RepositoryTimingPostProcessor(ObjectProvider<QueryStats> queryStats) {
+		this.queryStats = queryStats;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) {
+		if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+			factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+					(proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(0,
+							new RepositoryTimingInterceptor(repositoryInformation.getRepositoryInterface(), queryStats))));
+		}
+		return bean;
+	}
+}
@@ -0,0 +1,30 @@
+package com.pos.pos.Diagnostics;
+
+import java.util.regex.Pattern;
+
+/**
+ * Turns SQL into a shape that is the same for every execution of a query:
+ * literals become {@code ?}, IN lists collapse and whitespace is squeezed.
+ * Repeated shapes within one request are what give N+1 loads away.
+ */
+final class SqlNormalizer {
+	private static final int MAX_LENGTH = 1000;
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private SqlNormalizer() {
+	}
+
+	static String normalize(String sql) {
+		if (sql == null) {
+			return "";
+		}
+		String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+		shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+		shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+		shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+		return shape.length() > MAX_LENGTH ? shape.substring(0, MAX_LENGTH) : shape;
+	}
+}
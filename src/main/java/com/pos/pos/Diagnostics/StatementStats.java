@@ -0,0 +1,14 @@
+package com.pos.pos.Diagnostics;
+
+public record StatementStats(
+		String sql,
+		long executions,
+		long timed,
+		long errors,
+		double totalMillis,
+		double meanMillis,
+		double p50Millis,
+		double p99Millis,
+		double maxMillis,
+		long nPlusOneWarnings) {
+}
@@ -0,0 +1,105 @@
+package com.pos.pos.Diagnostics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Times every statement execution on its connections and reports it to
+ * {@link QueryStats} under the statement's SQL shape. While collection is
+ * off, connections are handed out unwrapped.
+ */
+class TimedDataSource extends DelegatingDataSource implements AutoCloseable {
+	private final QueryStats queryStats;
+
+	TimedDataSource(DataSource target, QueryStats queryStats) {
+		super(target);
+		this.queryStats = queryStats;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return timed(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return timed(super.getConnection(username, password));
+	}
+
+	// the pools behind it are closed through this bean on shutdown
+	@Override
+	public void close() throws Exception {
+		if (getTargetDataSource() instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	private Connection timed(Connection connection) {
+		if (!queryStats.isEnabled()) {
+			return connection;
+		}
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					Object result = invoke(connection, method, args);
+					if (result instanceof Statement statement) {
+						String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+						return timed(statement, sql);
+					}
+					return result;
+				});
+	}
+
+	private Statement timed(Statement statement, String preparedSql) {
+		Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+				: statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+		return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+				new StatementHandler(statement, preparedSql));
+	}
+
+	private final class StatementHandler implements InvocationHandler {
+		private final Statement statement;
+		private final String preparedSql;
+
+		private StatementHandler(Statement statement, String preparedSql) {
+			this.statement = statement;
+			this.preparedSql = preparedSql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (!method.getName().startsWith("execute")) {
+				return TimedDataSource.invoke(statement, method, args);
+			}
+			// plain statements carry their SQL on the execute call
+			String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+			long start = System.nanoTime();
+			boolean failed = true;
+			try {
+				Object result = TimedDataSource.invoke(statement, method, args);
+				failed = false;
+				return result;
+			} finally {
+				queryStats.onExecution(sql, System.nanoTime() - start, failed);
+			}
+		}
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
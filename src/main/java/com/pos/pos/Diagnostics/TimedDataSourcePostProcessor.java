@@ -0,0 +1,32 @@
+package com.pos.pos.Diagnostics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Wraps the application's data source in a {@link TimedDataSource}, so
+ * statement execution time is measured where the JDBC driver runs it. Only
+ * the bean JPA uses is wrapped: any other DataSource bean, such as a pool
+ * the routing data source delegates to, would time the same statement
+ * twice.
+ */
+class TimedDataSourcePostProcessor implements BeanPostProcessor {
+	// the name both Spring Boot's pool and ShardingConfig register under
+	static final String DATA_SOURCE_BEAN = "dataSource";
+
+	private final ObjectProvider<QueryStats> queryStats;
+
+	TimedDataSourcePostProcessor(ObjectProvider<QueryStats> queryStats) {
+		this.queryStats = queryStats;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)) {
+			return new TimedDataSource(dataSource, queryStats.getObject());
+		}
+		return bean;
+	}
+}
@@ -0,0 +1,19 @@
+package com.pos.pos.Dto;
+
+import com.pos.pos.Model.Inventory;
+
+public record InventoryDto(
+		Long id,
+		Long productId,
+		Integer quantity,
+		Integer minStock,
+		Integer maxStock,
+		String location) {
+
+	public static InventoryDto from(Inventory inventory) {
+		// reading the id of the lazy product does not load it
+		Long productId = inventory.getProduct() != null ? inventory.getProduct().getId() : null;
+		return new InventoryDto(inventory.getId(), productId, inventory.getQuantity(), inventory.getMinStock(),
+				inventory.getMaxStock(), inventory.getLocation());
+	}
+}
@@ -0,0 +1,33 @@
+package com.pos.pos.Dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.pos.pos.Model.Invoice;
+import com.pos.pos.Model.Invoice.InvoiceStatus;
+import com.pos.pos.Model.Invoice.PaymentMethod;
+
+public record InvoiceDto(
+		Long id,
+		Long storeId,
+		Long orderId,
+		String invoiceNumber,
+		LocalDate issueDate,
+		LocalDate dueDate,
+		Double subtotal,
+		Double taxAmount,
+		Double totalAmount,
+		Double taxRate,
+		InvoiceStatus status,
+		PaymentMethod paymentMethod,
+		LocalDateTime paymentDate,
+		String xmlData) {
+
+	public static InvoiceDto from(Invoice invoice) {
+		Long orderId = invoice.getOrder() != null ? invoice.getOrder().getId() : null;
+		return new InvoiceDto(invoice.getId(), invoice.getStoreId(), orderId, invoice.getInvoiceNumber(),
+				invoice.getIssueDate(), invoice.getDueDate(), invoice.getSubtotal(), invoice.getTaxAmount(),
+				invoice.getTotalAmount(), invoice.getTaxRate(), invoice.getStatus(), invoice.getPaymentMethod(),
+				invoice.getPaymentDate(), invoice.getXmlData());
+	}
+}
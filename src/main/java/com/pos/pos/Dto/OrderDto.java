@@ -0,0 +1,25 @@
+package com.pos.pos.Dto;
+
+import java.util.List;
+
+import com.pos.pos.Model.Order;
+import com.pos.pos.Model.Order.OrderStatus;
+
+public record OrderDto(
+		Long id,
+		String orderNumber,
+		OrderStatus status,
+		Double subtotal,
+		Double taxAmount,
+		Double shippingAmount,
+		Double totalAmount,
+		String notes,
+		List<OrderItemDto> items) {
+
+	public static OrderDto from(Order order) {
+		List<OrderItemDto> items = order.getOrderItems() == null ? List.of()
+				: order.getOrderItems().stream().map(OrderItemDto::from).toList();
+		return new OrderDto(order.getId(), order.getOrderNumber(), order.getStatus(), order.getSubtotal(),
+				order.getTaxAmount(), order.getShippingAmount(), order.getTotalAmount(), order.getNotes(), items);
+	}
+}
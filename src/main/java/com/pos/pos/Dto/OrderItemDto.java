@@ -0,0 +1,15 @@
+package com.pos.pos.Dto;
+
+import com.pos.pos.Model.OrderItem;
+
+public record OrderItemDto(
+		Long productId,
+		Integer quantity,
+		Double unitPrice,
+		Double totalPrice) {
+
+	public static OrderItemDto from(OrderItem item) {
+		Long productId = item.getProduct() != null ? item.getProduct().getId() : null;
+		return new OrderItemDto(productId, item.getQuantity(), item.getUnitPrice(), item.getTotalPrice());
+	}
+}
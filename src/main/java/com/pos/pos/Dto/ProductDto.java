@@ -0,0 +1,24 @@
+package com.pos.pos.Dto;
+
+import com.pos.pos.Model.Product;
+
+/**
+ * What a register needs to ring up a product; no audit fields or relations.
+ */
+public record ProductDto(
+		Long id,
+		String sku,
+		String barCode,
+		String name,
+		String brand,
+		String measureUnit,
+		Double price,
+		Double taxPercentage,
+		Boolean active) {
+
+	public static ProductDto from(Product product) {
+		return new ProductDto(product.getId(), product.getSku(), product.getBarCode(), product.getName(),
+				product.getBrand(), product.getMeasureUnit(), product.getCostPrice(), product.getTaxPercentage(),
+				product.getIsActive());
+	}
+}
@@ -0,0 +1,11 @@
+package com.pos.pos.Dto;
+
+/**
+ * Media types of the compact formats offered to register clients.
+ */
+public final class WireFormat {
+	public static final String SMILE = "application/x-jackson-smile";
+
+	private WireFormat() {
+	}
+}
@@ -0,0 +1,20 @@
+package com.pos.pos.Event;
+
+/**
+ * Compact status notification pushed to clients. It only carries what a
+ * list view needs to patch a row; clients fetch the entity by id if they
+ * need more.
+ */
+public record StatusChangeEvent(
+		long id,
+		Long storeId,
+		String entity,
+		Long entityId,
+		String number,
+		String status,
+		long timestamp) {
+
+	public static final String ORDER = "order";
+	public static final String INVOICE = "invoice";
+	public static final String DELETED = "DELETED";
+}
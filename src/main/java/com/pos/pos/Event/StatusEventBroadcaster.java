@@ -0,0 +1,238 @@
+package com.pos.pos.Event;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans out order and invoice status changes to the SSE subscribers of the
+ * same store.
+ * Every subscriber gets its own bounded buffer, drained by a small fixed
+ * pool of sender threads a few events at a time, so a slow client holds at
+ * most one sender and only for its turn. A client whose buffer fills up
+ * is disconnected and resumes from its Last-Event-ID on reconnect. A short
+ * history is kept for that resume, clients too far behind get a "reset"
+ * event and reload the lists once.
+ *
+ * Event ids on the wire are "epoch-sequence". The epoch changes on every
+ * start, so a client holding an id from before a restart is reset instead
+ * of being replayed the new sequence numbers as if they followed its own.
+ */
+@Component
+public class StatusEventBroadcaster {
+	private static final Logger log = LoggerFactory.getLogger(StatusEventBroadcaster.class);
+
+	private static final int HISTORY_SIZE = 1024;
+	private static final int CLIENT_BUFFER_SIZE = 256;
+	private static final int EVENTS_PER_TURN = 32;
+	private static final int SENDER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+	private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+	private final Deque<StatusChangeEvent> history = new ArrayDeque<>(HISTORY_SIZE);
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+	private final ExecutorService sender = Executors.newFixedThreadPool(SENDER_THREADS, runnable -> {
+		Thread thread = new Thread(runnable, "status-event-sender");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// start time plus a random suffix, so two runs never share an epoch
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+			+ Long.toString(ThreadLocalRandom.current().nextLong(1L << 40), 36);
+	private long sequence;
+
+	/**
+	 * Inside a transaction the event is held back until it commits, so
+	 * clients never see a change that was rolled back.
+	 *
+	 * @return the published event, or null when it was deferred to commit
+	 */
+	public StatusChangeEvent publish(Long storeId, String entity, Long entityId, String number, String status) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					broadcast(storeId, entity, entityId, number, status);
+				}
+			});
+			return null;
+		}
+		return broadcast(storeId, entity, entityId, number, status);
+	}
+
+	private StatusChangeEvent broadcast(Long storeId, String entity, Long entityId, String number, String status) {
+		StatusChangeEvent event;
+		List<Subscriber> overflowed = new ArrayList<>();
+		synchronized (history) {
+			event = new StatusChangeEvent(++sequence, storeId, entity, entityId, number, status, System.currentTimeMillis());
+			if (history.size() == HISTORY_SIZE) {
+				history.removeFirst();
+			}
+			history.addLast(event);
+			for (Subscriber subscriber : subscribers) {
+				if (subscriber.wants(event) && !subscriber.offer(event)) {
+					overflowed.add(subscriber);
+				}
+			}
+		}
+		// completing writes to the connection, which is not done while holding the history
+		overflowed.forEach(Subscriber::disconnect);
+		return event;
+	}
+
+	/**
+	 * @param lastEventId the client's Last-Event-ID, may be null for a fresh subscription
+	 */
+	public SseEmitter subscribe(Long storeId, String lastEventId) {
+		SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+		Subscriber subscriber = new Subscriber(storeId, emitter);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+
+		boolean overflowed = false;
+		synchronized (history) {
+			Long lastSeen = lastEventId == null || lastEventId.isBlank() ? null : sequenceOf(lastEventId);
+			if (lastEventId != null && !lastEventId.isBlank() && lastSeen == null) {
+				// an id from another run of the server, or not one of ours
+				subscriber.reset = true;
+			} else if (lastSeen != null && lastSeen != sequence) {
+				StatusChangeEvent oldest = history.peekFirst();
+				if (lastSeen > sequence || oldest == null || oldest.id() > lastSeen + 1
+						|| sequence - lastSeen > CLIENT_BUFFER_SIZE) {
+					subscriber.reset = true;
+				} else {
+					for (StatusChangeEvent event : history) {
+						if (event.id() > lastSeen && subscriber.wants(event) && !subscriber.offer(event)) {
+							overflowed = true;
+							break;
+						}
+					}
+				}
+			}
+			subscribers.add(subscriber);
+		}
+		if (overflowed) {
+			subscriber.disconnect();
+		} else {
+			subscriber.schedule();
+		}
+		return emitter;
+	}
+
+	String eventId(StatusChangeEvent event) {
+		return epoch + "-" + event.id();
+	}
+
+	// null unless the id was issued by this run
+	Long sequenceOf(String eventId) {
+		int split = eventId.lastIndexOf('-');
+		if (split <= 0 || !eventId.substring(0, split).equals(epoch)) {
+			return null;
+		}
+		try {
+			return Long.parseLong(eventId.substring(split + 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public int subscriberCount() {
+		return subscribers.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		for (Subscriber subscriber : subscribers) {
+			subscriber.emitter.complete();
+		}
+		sender.shutdownNow();
+	}
+
+	private final class Subscriber {
+		private final Long storeId;
+		private final SseEmitter emitter;
+		private final BlockingQueue<StatusChangeEvent> buffer = new ArrayBlockingQueue<>(CLIENT_BUFFER_SIZE);
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private volatile boolean reset;
+
+		private Subscriber(Long storeId, SseEmitter emitter) {
+			this.storeId = storeId;
+			this.emitter = emitter;
+		}
+
+		private boolean wants(StatusChangeEvent event) {
+			return Objects.equals(storeId, event.storeId());
+		}
+
+		// false when the buffer is full; the caller disconnects it once it has let go of the history
+		private boolean offer(StatusChangeEvent event) {
+			if (!buffer.offer(event)) {
+				subscribers.remove(this);
+				return false;
+			}
+			schedule();
+			return true;
+		}
+
+		// too slow to keep up, let it reconnect and resume from its last id
+		private void disconnect() {
+			subscribers.remove(this);
+			buffer.clear();
+			emitter.complete();
+		}
+
+		private void schedule() {
+			if (draining.compareAndSet(false, true)) {
+				sender.execute(this::drain);
+			}
+		}
+
+		private void drain() {
+			try {
+				if (reset) {
+					reset = false;
+					emitter.send(SseEmitter.event().name("reset").data(""));
+				}
+				StatusChangeEvent event;
+				int sent = 0;
+				// a turn is a few events, then the thread goes to the next subscriber
+				while (sent++ < EVENTS_PER_TURN && (event = buffer.poll()) != null) {
+					emitter.send(SseEmitter.event()
+							.id(eventId(event))
+							.name("status")
+							.data(event, MediaType.APPLICATION_JSON));
+				}
+			} catch (IOException | IllegalStateException e) {
+				log.debug("Dropping status subscriber: {}", e.getMessage());
+				subscribers.remove(this);
+				emitter.completeWithError(e);
+				return;
+			} finally {
+				draining.set(false);
+			}
+			if (!buffer.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package com.pos.pos.Idempotency;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.pos.Model.IdempotencyRecord;
+import com.pos.pos.Repository.IdempotencyRecordRepository;
+import com.pos.pos.Tenant.Shards;
+import com.pos.pos.Tenant.TenantContext;
+import com.pos.pos.Util.SingleFlight;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Remembers the response of create requests sent with an Idempotency-Key
+ * header so a retried request gets the original response back instead of
+ * creating a second row. The key is claimed in the same transaction that
+ * creates the order or invoice, so either both commit or neither does, and
+ * a second instance retrying the same key waits on the database for the
+ * first one and then replays its response. A key reused with a different
+ * request is rejected. Recent keys are also kept in a bounded in-memory
+ * LRU that forgets them after the same retention as the table, and
+ * concurrent retries within one instance share a single run.
+ */
+@Component
+public class IdempotencyStore {
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+	private static final int MAX_KEY_LENGTH = 150;
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private Shards shards;
+
+	@Value("${pos.idempotency.retention-hours:24}")
+	private long retentionHours;
+
+	private final Map<String, StoredResponse> recent;
+	private final SingleFlight<String, Result> inFlight = new SingleFlight<>();
+
+	public IdempotencyStore(@Value("${pos.idempotency.cache-size:10000}") int cacheSize) {
+		this.recent = new LinkedHashMap<>(256, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * @param request what identifies the request besides the key: the
+	 *            {@link HttpServletRequest} itself, whose parameters and body
+	 *            are fingerprinted, or a DTO read from the body
+	 */
+	public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<?> action) {
+		if (key == null || key.isBlank()) {
+			return ResponseEntity.ok(action.get());
+		}
+		Result result = resolve(scope, key, request, action);
+		return ResponseEntity.status(result.response().status())
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(REPLAYED_HEADER, Boolean.toString(result.replayed()))
+				.body(result.response().body());
+	}
+
+	/**
+	 * Same as {@link #execute(String, String, Object, Supplier)} but hands
+	 * back the value itself, read back from the stored JSON on a replay, so
+	 * the caller's content negotiation still applies. Meant for plain DTOs.
+	 */
+	public <T> T execute(String scope, String key, Object request, Class<T> type, Supplier<T> action) {
+		if (key == null || key.isBlank()) {
+			return action.get();
+		}
+		Result result = resolve(scope, key, request, action);
+		try {
+			return objectMapper.readValue(result.response().body(), type);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not read stored response for idempotency key " + key, e);
+		}
+	}
+
+	private Result resolve(String scope, String key, Object request, Supplier<?> action) {
+		if (key.length() > MAX_KEY_LENGTH) {
+			throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+		}
+		String recordKey = TenantContext.current() + ":" + scope + ":" + key;
+		String requestHash = fingerprint(request);
+		StoredResponse cached = cached(recordKey);
+		if (cached != null) {
+			return replay(cached, requestHash);
+		}
+		boolean[] ranHere = new boolean[1];
+		Result result = inFlight.execute(recordKey, () -> {
+			StoredResponse existing = cached(recordKey);
+			if (existing != null) {
+				return new Result(existing, true);
+			}
+			Result outcome = transactionTemplate.execute(tx -> claimAndRun(recordKey, requestHash, action));
+			remember(recordKey, outcome.response());
+			ranHere[0] = !outcome.replayed();
+			return outcome;
+		});
+		// callers that joined someone else's in-flight request are replays too
+		if (!ranHere[0]) {
+			return replay(result.response(), requestHash);
+		}
+		return result;
+	}
+
+	// runs inside the transaction the action's own writes join
+	private Result claimAndRun(String recordKey, String requestHash, Supplier<?> action) {
+		// blocks while another transaction holds the same key, then reports whether it committed
+		if (idempotencyRecordRepository.insertIfAbsent(recordKey, requestHash, LocalDateTime.now()) == 0) {
+			IdempotencyRecord record = idempotencyRecordRepository.findById(recordKey)
+					.orElseThrow(() -> new IllegalStateException("Idempotency key " + recordKey + " vanished"));
+			return new Result(new StoredResponse(record.getResponseStatus(), record.getResponseBody(), record.getRequestHash(),
+					record.getCreatedAt()), true);
+		}
+		StoredResponse created = new StoredResponse(HttpStatus.OK.value(), serialize(action.get()), requestHash, LocalDateTime.now());
+		idempotencyRecordRepository.complete(recordKey, created.status(), created.body());
+		return new Result(created, false);
+	}
+
+	private Result replay(StoredResponse stored, String requestHash) {
+		if (stored.requestHash() != null && !stored.requestHash().equals(requestHash)) {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+					HEADER + " was already used for a different request");
+		}
+		return new Result(stored, true);
+	}
+
+	@Scheduled(fixedDelayString = "${pos.idempotency.purge-interval-ms:3600000}")
+	public void purgeExpired() {
+		shards.forEach(shard -> {
+			int removed = idempotencyRecordRepository.deleteOlderThan(LocalDateTime.now().minusHours(retentionHours));
+			if (removed > 0) {
+				log.info("Purged {} expired idempotency keys on shard {}", removed, shard);
+			}
+		});
+	}
+
+	private String serialize(Object body) {
+		try {
+			return objectMapper.writeValueAsString(body);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize response for idempotency store", e);
+		}
+	}
+
+	private String fingerprint(Object request) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			if (request instanceof HttpServletRequest http) {
+				// sorted so parameter order does not change the hash; a JSON body is nobody else's to read
+				digest.update(objectMapper.writeValueAsBytes(new TreeMap<>(http.getParameterMap())));
+				digest.update(StreamUtils.copyToByteArray(http.getInputStream()));
+			} else {
+				Object canonical = request instanceof Map<?, ?> map ? new TreeMap<>(map) : request;
+				digest.update(objectMapper.writeValueAsBytes(canonical));
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (IOException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Could not fingerprint request for idempotency store", e);
+		}
+	}
+
+	private StoredResponse cached(String recordKey) {
+		synchronized (recent) {
+			StoredResponse stored = recent.get(recordKey);
+			// purged from the table by now, so the key may be claimed again
+			if (stored != null && stored.createdAt().isBefore(LocalDateTime.now().minusHours(retentionHours))) {
+				recent.remove(recordKey);
+				return null;
+			}
+			return stored;
+		}
+	}
+
+	private void remember(String recordKey, StoredResponse response) {
+		synchronized (recent) {
+			recent.put(recordKey, response);
+		}
+	}
+
+	private record StoredResponse(int status, String body, String requestHash, LocalDateTime createdAt) {
+	}
+
+	private record Result(StoredResponse response, boolean replayed) {
+	}
+}
@@ -0,0 +1,41 @@
+package com.pos.pos.Model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    // store, scope and client key, e.g. "1:orders:3f2a..."
+    @Id
+    @Column(name = "record_key", length = 200)
+    private String recordKey;
+    
+    // SHA-256 de la peticion original, para rechazar una clave reutilizada con otro contenido
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+    
+    // null mientras la transaccion que reclamo la clave sigue en curso
+    @Column(name = "response_status")
+    private Integer responseStatus;
+    
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+    
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
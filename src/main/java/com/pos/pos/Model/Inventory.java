@@ -9,8 +9,10 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,6 +21,7 @@ import lombok.ToString;
 
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_inventory_store_product", columnNames = { "store_id", "product_id" }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +31,9 @@ public class Inventory {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @Column(name = "store_id")
+    private Long storeId;
+    
     @Column(nullable = false)
     @Builder.Default
     private Integer quantity = 0;
@@ -53,8 +59,8 @@ public class Inventory {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
-    // Relaciones
-    @OneToOne(fetch = FetchType.LAZY)
+    // Relaciones: un inventario por producto y tienda
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     @ToString.Exclude
     private Product product;
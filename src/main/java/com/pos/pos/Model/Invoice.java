@@ -13,6 +13,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
@@ -25,7 +26,7 @@ import lombok.ToString;
 
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = @Index(name = "idx_invoices_store", columnList = "store_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +36,9 @@ public class Invoice {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @Column(name = "store_id")
+    private Long storeId;
+    
     @Column(name = "invoice_number", nullable = false, unique = true, length = 50)
     private String invoiceNumber;
     
@@ -0,0 +1,39 @@
+package com.pos.pos.Model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "number_series")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NumberSeries {
+    // store, kind and register, e.g. "1:order:S1-R2"
+    @Id
+    @Column(name = "series_key", length = 100)
+    private String seriesKey;
+    
+    // first value not handed out to any register yet
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+    
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
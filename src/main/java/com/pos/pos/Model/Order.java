@@ -12,6 +12,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.PreUpdate;
@@ -23,7 +24,7 @@ import lombok.NoArgsConstructor;
 
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_store", columnList = "store_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +34,9 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @Column(name = "store_id")
+    private Long storeId;
+    
     @Column(name = "order_number", nullable = false, unique = true, length = 50)
     private String orderNumber;
     
@@ -74,7 +78,8 @@ public class Order {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems;
     
-    @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // sin REMOVE: borrar una orden nunca debe borrar su factura
+    @OneToOne(mappedBy = "order", cascade = { CascadeType.PERSIST, CascadeType.MERGE }, fetch = FetchType.LAZY)
     private Invoice invoice;
     
     public enum OrderStatus {
@@ -0,0 +1,180 @@
+package com.pos.pos.Numbering;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pos.pos.Model.NumberSeries;
+import com.pos.pos.Repository.InvoiceRepository;
+import com.pos.pos.Repository.NumberSeriesRepository;
+import com.pos.pos.Tenant.TenantContext;
+
+/**
+ * Hands out order and invoice numbers without a database round trip per
+ * checkout.
+ *
+ * Order numbers only have to be unique, so each register leases a block of
+ * numbers from the number_series table and counts through it in memory.
+ * Numbers left in a block when the application stops are skipped.
+ *
+ * Invoice numbers form one gapless fiscal series per store and year, kept
+ * in a number_series row that is locked and advanced inside the invoice's
+ * own transaction. The row stays locked until that transaction ends, so
+ * invoices of one store and year are numbered one at a time across all
+ * instances, and a rolled back invoice rolls its number back with it. A new
+ * series starts after the last invoice already issued. Leasing blocks, or
+ * numbering in a transaction of its own, would leave a gap for every
+ * invoice that fails after taking its number, which a fiscal series may not
+ * have; so the lock is taken just before the invoice row is written, after
+ * everything that can be done without it, and order numbers never touch it.
+ */
+@Component
+public class NumberAllocator {
+	private static final Logger log = LoggerFactory.getLogger(NumberAllocator.class);
+	private static final int MAX_REGISTER_LENGTH = 20;
+	private static final String DEFAULT_REGISTER = "POS";
+
+	@Autowired
+	private NumberSeriesRepository numberSeriesRepository;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Value("${pos.numbering.order-block-size:100}")
+	private int orderBlockSize;
+
+	private final TransactionTemplate newTransaction;
+	private final Map<String, Block> orderBlocks = new ConcurrentHashMap<>();
+
+	public NumberAllocator(PlatformTransactionManager transactionManager) {
+		// leases commit on their own so they never wait on the checkout's transaction
+		this.newTransaction = new TransactionTemplate(transactionManager);
+		this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * @param register terminal id sent by the register, may be null
+	 * @return a number like {@code 1-S1-R2-000042}
+	 */
+	public String nextOrderNumber(String register) {
+		Long storeId = TenantContext.current();
+		String registerId = registerId(register);
+		String seriesKey = storeId + ":order:" + registerId;
+		Block block = orderBlocks.computeIfAbsent(seriesKey, k -> new Block());
+		long value = block.next();
+		if (value < 0) {
+			synchronized (block) {
+				// another thread may have leased while we waited
+				value = block.next();
+				while (value < 0) {
+					long start = lease(seriesKey, orderBlockSize);
+					block.reset(start, start + orderBlockSize);
+					value = block.next();
+				}
+			}
+		}
+		return String.format("%d-%s-%06d", storeId, registerId, value);
+	}
+
+	/**
+	 * Has to be called inside the transaction that saves the invoice, as
+	 * late as possible: the series stays locked until it commits.
+	 *
+	 * @param issueDate picks the fiscal year, today when null
+	 * @return a number like {@code F1-2026-00000042}
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public String nextInvoiceNumber(LocalDate issueDate) {
+		Long storeId = TenantContext.current();
+		int year = (issueDate != null ? issueDate : LocalDate.now()).getYear();
+		String prefix = "F" + storeId + "-" + year + "-";
+		String seriesKey = storeId + ":invoice:" + year;
+		NumberSeries series = numberSeriesRepository.findForUpdate(seriesKey).orElse(null);
+		if (series == null) {
+			numberSeriesRepository.insertIfAbsent(seriesKey, lastIssued(prefix) + 1);
+			series = numberSeriesRepository.findForUpdate(seriesKey)
+					.orElseThrow(() -> new IllegalStateException("Number series " + seriesKey + " could not be created"));
+		}
+		long value = series.getNextValue();
+		series.setNextValue(value + 1);
+		numberSeriesRepository.save(series);
+		return prefix + String.format("%08d", value);
+	}
+
+	private long lease(String seriesKey, int size) {
+		try {
+			return newTransaction.execute(status -> {
+				NumberSeries series = numberSeriesRepository.findForUpdate(seriesKey)
+						.orElseGet(() -> NumberSeries.builder().seriesKey(seriesKey).nextValue(1L).build());
+				long start = series.getNextValue();
+				series.setNextValue(start + size);
+				numberSeriesRepository.saveAndFlush(series);
+				return start;
+			});
+		} catch (DataIntegrityViolationException e) {
+			// another instance created the series first, its row is there to lock now
+			log.debug("Number series {} was created concurrently", seriesKey);
+			return lease(seriesKey, size);
+		}
+	}
+
+	// invoices issued before the series row existed
+	private long lastIssued(String prefix) {
+		String last = invoiceRepository.findLastInvoiceNumber(prefix);
+		if (last == null) {
+			return 0;
+		}
+		try {
+			long lastValue = Long.parseLong(last.substring(prefix.length()));
+			log.info("Invoice series {} continues after {}", prefix, lastValue);
+			return lastValue;
+		} catch (NumberFormatException e) {
+			throw new IllegalStateException("Invoice number " + last + " does not belong to series " + prefix, e);
+		}
+	}
+
+	private static String registerId(String register) {
+		if (register == null) {
+			return DEFAULT_REGISTER;
+		}
+		String cleaned = register.replaceAll("[^A-Za-z0-9_-]", "");
+		if (cleaned.isEmpty()) {
+			return DEFAULT_REGISTER;
+		}
+		return cleaned.length() > MAX_REGISTER_LENGTH ? cleaned.substring(0, MAX_REGISTER_LENGTH) : cleaned;
+	}
+
+	private static class Block {
+		private volatile Lease current = new Lease(0, 0);
+
+		// -1 once the current lease is used up
+		long next() {
+			Lease lease = current;
+			long value = lease.next.getAndIncrement();
+			return value < lease.end ? value : -1;
+		}
+
+		void reset(long start, long end) {
+			current = new Lease(start, end);
+		}
+	}
+
+	private record Lease(AtomicLong next, long end) {
+		Lease(long start, long end) {
+			this(new AtomicLong(start), end);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.pos.pos.Outbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pos.pos.Model.OutboxEvent;
+
+/**
+ * Appends events as JSON lines to pos.outbox.file.path, for integrations
+ * that pick up files. A batch counts as published once it is synced to
+ * disk.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pos.outbox", name = "sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final Path path;
+
+	public FileOutboxSink(@Value("${pos.outbox.file.path:outbox-events.jsonl}") String path) {
+		this.path = Path.of(path);
+	}
+
+	@Override
+	public synchronized void publish(List<OutboxEvent> events) throws IOException {
+		StringBuilder lines = new StringBuilder();
+		for (OutboxEvent event : events) {
+			ObjectNode line = objectMapper.createObjectNode();
+			line.put("id", event.getId());
+			line.put("storeId", event.getStoreId());
+			line.put("eventType", event.getEventType());
+			line.put("aggregateType", event.getAggregateType());
+			line.put("aggregateId", event.getAggregateId());
+			line.put("createdAt", event.getCreatedAt().toString());
+			line.set("payload", objectMapper.readTree(event.getPayload()));
+			lines.append(objectMapper.writeValueAsString(line)).append('\n');
+		}
+		Path parent = path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+			ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.pos.pos.Outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.pos.pos.Model.OutboxEvent;
+
+/**
+ * In-process sink for development and tests: logs each event and keeps the
+ * most recent ones in memory. This is the default until a real integration
+ * is configured.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pos.outbox", name = "sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxSink implements OutboxSink {
+	private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+	private static final int KEEP = 1000;
+
+	private final Deque<OutboxEvent> recent = new ArrayDeque<>(KEEP);
+
+	@Override
+	public synchronized void publish(List<OutboxEvent> events) {
+		for (OutboxEvent event : events) {
+			log.info("Outbox event {} {} {} {}", event.getId(), event.getEventType(), event.getAggregateType(), event.getAggregateId());
+			if (recent.size() == KEEP) {
+				recent.removeFirst();
+			}
+			recent.addLast(event);
+		}
+	}
+
+	public synchronized List<OutboxEvent> recent() {
+		return new ArrayList<>(recent);
+	}
+}
@@ -0,0 +1,148 @@
+package com.pos.pos.Outbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pos.pos.Model.OutboxEvent;
+import com.pos.pos.Repository.OutboxEventRepository;
+import com.pos.pos.Tenant.Shards;
+
+/**
+ * Moves committed outbox events to the configured {@link OutboxSink} in
+ * batches, off the request path. A failed event is retried with exponential
+ * backoff and parked after pos.outbox.max-attempts; parked events keep
+ * their last error and can be re-queued by setting next_attempt_at.
+ *
+ * Several instances can relay the same shard: a batch is claimed in a short
+ * transaction with FOR UPDATE SKIP LOCKED and its next_attempt_at pushed
+ * out by pos.outbox.claim-timeout-ms, so other relays leave it alone while
+ * it is being sent. If the instance dies, the claim runs out and the batch
+ * is picked up again.
+ *
+ * Events of one aggregate are delivered in the order they were written: an
+ * event is only claimed once every earlier event of its order or invoice
+ * is published, so a failing or parked event holds back the ones after it.
+ */
+@Component
+public class OutboxRelay {
+	private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+	private static final int MAX_BATCHES_PER_RUN = 20;
+	private static final int MAX_ERROR_LENGTH = 500;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private OutboxSink outboxSink;
+
+	@Autowired
+	private Shards shards;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${pos.outbox.batch-size:100}")
+	private int batchSize;
+
+	@Value("${pos.outbox.max-attempts:10}")
+	private int maxAttempts;
+
+	@Value("${pos.outbox.backoff-ms:1000}")
+	private long backoffMillis;
+
+	@Value("${pos.outbox.max-backoff-ms:300000}")
+	private long maxBackoffMillis;
+
+	@Value("${pos.outbox.claim-timeout-ms:60000}")
+	private long claimTimeoutMillis;
+
+	@Value("${pos.outbox.retention-hours:168}")
+	private long retentionHours;
+
+	@Scheduled(fixedDelayString = "${pos.outbox.poll-interval-ms:1000}")
+	public void relay() {
+		shards.forEach(shard -> {
+			// keep going while there is a backlog, but let the other shards have a turn
+			for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+				if (relayBatch() < batchSize) {
+					break;
+				}
+			}
+		});
+	}
+
+	@Scheduled(fixedDelayString = "${pos.outbox.purge-interval-ms:3600000}")
+	public void purgePublished() {
+		shards.forEach(shard -> {
+			int removed = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+			if (removed > 0) {
+				log.info("Purged {} published outbox events", removed);
+			}
+		});
+	}
+
+	private int relayBatch() {
+		List<OutboxEvent> batch = claimBatch();
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		try {
+			outboxSink.publish(batch);
+			outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+			return batch.size();
+		} catch (Exception e) {
+			if (batch.size() == 1) {
+				markFailed(batch.get(0), e);
+				return batch.size();
+			}
+			log.warn("Outbox batch of {} failed, retrying one by one: {}", batch.size(), e.toString());
+		}
+		for (OutboxEvent event : batch) {
+			try {
+				outboxSink.publish(List.of(event));
+				outboxEventRepository.markPublished(List.of(event.getId()), LocalDateTime.now());
+			} catch (Exception e) {
+				markFailed(event, e);
+			}
+		}
+		return batch.size();
+	}
+
+	private List<OutboxEvent> claimBatch() {
+		return transactionTemplate.execute(tx -> {
+			LocalDateTime now = LocalDateTime.now();
+			List<OutboxEvent> batch = outboxEventRepository.lockReady(now, batchSize);
+			if (!batch.isEmpty()) {
+				outboxEventRepository.claimUntil(batch.stream().map(OutboxEvent::getId).toList(),
+						now.plusNanos(claimTimeoutMillis * 1_000_000));
+			}
+			return batch;
+		});
+	}
+
+	private void markFailed(OutboxEvent event, Exception error) {
+		// as of the claim; the update itself counts from the row
+		int attempts = event.getAttempts() + 1;
+		long delay = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempts - 1, 30));
+		outboxEventRepository.markFailed(event.getId(), LocalDateTime.now().plusNanos(delay * 1_000_000),
+				truncate(error.toString()), maxAttempts);
+		if (attempts >= maxAttempts) {
+			log.error("Outbox event {} ({}) parked after {} attempts", event.getId(), event.getEventType(), attempts, error);
+		} else {
+			log.warn("Outbox event {} failed, attempt {} of {}, next try in {} ms: {}", event.getId(), attempts, maxAttempts,
+					delay, error.toString());
+		}
+	}
+
+	private static String truncate(String message) {
+		return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+	}
+}
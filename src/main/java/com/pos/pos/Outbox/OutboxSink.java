@@ -0,0 +1,20 @@
+package com.pos.pos.Outbox;
+
+import java.util.List;
+
+import com.pos.pos.Model.OutboxEvent;
+
+/**
+ * Destination of the outbox relay, picked with pos.outbox.sink. Delivery is
+ * at least once, so whatever reads from a sink should skip event ids it has
+ * already seen.
+ */
+public interface OutboxSink {
+	/**
+	 * Delivers the whole batch, in list order, or throws. The relay retries a
+	 * failed batch one event at a time, so one bad event only holds back the
+	 * later events of its own aggregate. A batch never has two events of the
+	 * same aggregate.
+	 */
+	void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,44 @@
+package com.pos.pos.Outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.pos.Model.OutboxEvent;
+import com.pos.pos.Repository.OutboxEventRepository;
+import com.pos.pos.Tenant.TenantContext;
+
+/**
+ * Adds events to the outbox_events table. Has to be called inside the
+ * transaction that saves the order or invoice, so the event exists exactly
+ * when the change it describes was committed. {@link OutboxRelay} delivers
+ * it later.
+ */
+@Component
+public class OutboxWriter {
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(payload);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize " + eventType + " for the outbox", e);
+		}
+		outboxEventRepository.save(OutboxEvent.builder()
+				.storeId(TenantContext.current())
+				.aggregateType(aggregateType)
+				.aggregateId(aggregateId)
+				.eventType(eventType)
+				.payload(json)
+				.build());
+	}
+}
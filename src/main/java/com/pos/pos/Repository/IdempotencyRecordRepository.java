@@ -0,0 +1,29 @@
+package com.pos.pos.Repository;
+
+import com.pos.pos.Model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+	// waits on a concurrent uncommitted insert of the same key; returns 0 if the key already exists
+	@Modifying
+	@Query(value = "insert into idempotency_keys (record_key, request_hash, created_at) values (:recordKey, :requestHash, :createdAt) on conflict (record_key) do nothing", nativeQuery = true)
+	int insertIfAbsent(@Param("recordKey") String recordKey, @Param("requestHash") String requestHash, @Param("createdAt") LocalDateTime createdAt);
+
+	@Modifying
+	@Query("update IdempotencyRecord r set r.responseStatus = :status, r.responseBody = :body where r.recordKey = :recordKey")
+	int complete(@Param("recordKey") String recordKey, @Param("status") int status, @Param("body") String body);
+
+	@Modifying
+	@Transactional
+	@Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+	int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
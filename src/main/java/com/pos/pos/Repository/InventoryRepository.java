@@ -2,9 +2,24 @@ package com.pos.pos.Repository;
 
 import com.pos.pos.Model.Inventory;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+	List<Inventory> findAllByStoreId(Long storeId);
+
+	Optional<Inventory> findByIdAndStoreId(Long id, Long storeId);
+
+	// one statement, so concurrent sales of the same product never lose an update
+	@Modifying(clearAutomatically = true)
+	@Query("update Inventory i set i.quantity = i.quantity + :delta, i.updatedAt = :now where i.id = :id and i.storeId = :storeId and i.quantity + :delta >= 0")
+	int adjustQuantity(@Param("id") Long id, @Param("storeId") Long storeId, @Param("delta") int delta, @Param("now") LocalDateTime now);
 }
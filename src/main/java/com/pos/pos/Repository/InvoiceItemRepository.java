@@ -1,10 +1,45 @@
 package com.pos.pos.Repository;
 
+import com.pos.pos.Analytics.SalesFactRow;
+import com.pos.pos.Model.Invoice.InvoiceStatus;
 import com.pos.pos.Model.InvoiceItem;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface InvoiceItemRepository extends JpaRepository<InvoiceItem, Long> {
+	// items belong to a store through their invoice
+	List<InvoiceItem> findAllByInvoiceStoreId(Long storeId);
+
+	Optional<InvoiceItem> findByIdAndInvoiceStoreId(Long id, Long storeId);
+
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select new com.pos.pos.Analytics.SalesFactRow(i.storeId, ii.product.id, i.createdAt, ii.quantity, ii.totalPrice, i.paymentMethod) "
+			+ "from InvoiceItem ii join ii.invoice i where i.status <> :excluded and ii.id <= :maxItemId")
+	Stream<SalesFactRow> streamSalesFacts(@Param("excluded") InvoiceStatus excluded,
+			@Param("maxItemId") Long maxItemId);
+
+	@Query("select new com.pos.pos.Analytics.SalesFactRow(i.storeId, ii.product.id, i.createdAt, ii.quantity, ii.totalPrice, i.paymentMethod) "
+			+ "from InvoiceItem ii join ii.invoice i where i.id = :invoiceId")
+	List<SalesFactRow> findSalesFactsByInvoiceId(@Param("invoiceId") Long invoiceId);
+
+	@Query("select new com.pos.pos.Analytics.SalesFactRow(i.storeId, ii.product.id, i.createdAt, ii.quantity, ii.totalPrice, i.paymentMethod) "
+			+ "from InvoiceItem ii join ii.invoice i where ii.id = :itemId and i.status <> :excluded")
+	List<SalesFactRow> findActiveSalesFactsByItemId(@Param("itemId") Long itemId, @Param("excluded") InvoiceStatus excluded);
+
+	@Query("select coalesce(max(ii.id), 0) from InvoiceItem ii")
+	Long findMaxId();
 }
@@ -2,9 +2,34 @@ package com.pos.pos.Repository;
 
 import com.pos.pos.Model.Invoice;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+	List<Invoice> findAllByStoreId(Long storeId);
+
+	Optional<Invoice> findByIdAndStoreId(Long id, Long storeId);
+
+	// status changes take this lock, so they and line changes reach sales analytics in commit order
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select i from Invoice i where i.id = :id and i.storeId = :storeId")
+	Optional<Invoice> findForUpdate(@Param("id") Long id, @Param("storeId") Long storeId);
+
+	// adding or removing a line only has to keep the status from changing underneath it
+	@Lock(LockModeType.PESSIMISTIC_READ)
+	@Query("select i from Invoice i where i.id = :id and i.storeId = :storeId")
+	Optional<Invoice> findForShare(@Param("id") Long id, @Param("storeId") Long storeId);
+
+	// numbers in a series are zero padded, so the string max is the last one issued
+	@Query("select max(i.invoiceNumber) from Invoice i where i.invoiceNumber like concat(:prefix, '%')")
+	String findLastInvoiceNumber(@Param("prefix") String prefix);
 }
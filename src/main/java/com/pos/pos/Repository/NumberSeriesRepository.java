@@ -0,0 +1,31 @@
+package com.pos.pos.Repository;
+
+import com.pos.pos.Model.NumberSeries;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface NumberSeriesRepository extends JpaRepository<NumberSeries, String> {
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select s from NumberSeries s where s.seriesKey = :seriesKey")
+	Optional<NumberSeries> findForUpdate(@Param("seriesKey") String seriesKey);
+
+	// creates the series unless it exists, without failing the caller's transaction on a race
+	@Modifying
+	@Query(value = "insert into number_series (series_key, next_value, updated_at) values (:seriesKey, :nextValue, now()) on conflict (series_key) do nothing", nativeQuery = true)
+	int insertIfAbsent(@Param("seriesKey") String seriesKey, @Param("nextValue") Long nextValue);
+
+	// adds one to a counter row in a single statement, creating it at 1
+	@Modifying
+	@Query(value = "insert into number_series (series_key, next_value, updated_at) values (:seriesKey, 1, now()) on conflict (series_key) do update set next_value = number_series.next_value + 1, updated_at = now()", nativeQuery = true)
+	int increment(@Param("seriesKey") String seriesKey);
+}
@@ -2,9 +2,16 @@ package com.pos.pos.Repository;
 
 import com.pos.pos.Model.OrderItem;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+	// items belong to a store through their order
+	List<OrderItem> findAllByOrderStoreId(Long storeId);
+
+	Optional<OrderItem> findByIdAndOrderStoreId(Long id, Long storeId);
 }
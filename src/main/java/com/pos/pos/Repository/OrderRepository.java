@@ -2,9 +2,19 @@ package com.pos.pos.Repository;
 
 import com.pos.pos.Model.Order;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+	List<Order> findAllByStoreId(Long storeId);
+
+	Optional<Order> findByIdAndStoreId(Long id, Long storeId);
+
+	@EntityGraph(attributePaths = "orderItems")
+	List<Order> findWithItemsByStoreId(Long storeId);
 }
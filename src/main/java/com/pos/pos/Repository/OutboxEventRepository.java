@@ -0,0 +1,48 @@
+package com.pos.pos.Repository;
+
+import com.pos.pos.Model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+	// rows another relay has locked are skipped, not waited for; an event waits
+	// while an earlier one of the same aggregate is unpublished, parked included
+	@Query(value = "select * from outbox_events e where e.published_at is null and e.next_attempt_at <= :now "
+			+ "and not exists (select 1 from outbox_events earlier where earlier.aggregate_type = e.aggregate_type "
+			+ "and earlier.aggregate_id = e.aggregate_id and earlier.published_at is null and earlier.id < e.id) "
+			+ "order by e.id limit :limit for update skip locked", nativeQuery = true)
+	List<OutboxEvent> lockReady(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+	@Modifying
+	@Query("update OutboxEvent e set e.nextAttemptAt = :until where e.id in :ids")
+	int claimUntil(@Param("ids") Collection<Long> ids, @Param("until") LocalDateTime until);
+
+	@Modifying
+	@Transactional
+	@Query("update OutboxEvent e set e.publishedAt = :now, e.lastError = null where e.id in :ids")
+	int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+	// counts the attempt on the row itself, so it never undoes another relay's publish or attempt
+	@Modifying
+	@Transactional
+	@Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.lastError = :error, "
+			+ "e.nextAttemptAt = case when e.attempts + 1 >= :maxAttempts then null else :nextAttemptAt end "
+			+ "where e.id = :id and e.publishedAt is null")
+	int markFailed(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error,
+			@Param("maxAttempts") int maxAttempts);
+
+	@Modifying
+	@Transactional
+	@Query("delete from OutboxEvent e where e.publishedAt < :cutoff")
+	int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
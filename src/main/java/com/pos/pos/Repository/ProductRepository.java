@@ -2,13 +2,27 @@ package com.pos.pos.Repository;
 
 import com.pos.pos.Model.Product;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 	boolean existsByBarCode(String barCode);
 	Product findByBarCode(String barCode);
+
+	@EntityGraph(attributePaths = "productCategories")
+	Product findWithCategoriesByBarCode(String barCode);
+
+	// [productId, lowest categoryId]; a product's first category is the one analytics groups it under
+	@Query("select p.id, min(c.id) from Product p join p.productCategories c group by p.id")
+	List<Object[]> findPrimaryCategories();
+
+	@Query("select p.id, min(c.id) from Product p join p.productCategories c where p.id in :ids group by p.id")
+	List<Object[]> findPrimaryCategories(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,53 @@
+package com.pos.pos.Tenant;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the single spring.datasource pool with one pool per shard when
+ * pos.sharding.enabled is set. Schema updates (ddl-auto) only reach the
+ * default shard, the others need the same schema applied to them.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "pos.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+	@Bean
+	@Primary
+	public DataSource dataSource(ShardingProperties properties) {
+		if (!properties.getShards().containsKey(properties.getDefaultShard())) {
+			throw new IllegalStateException("pos.sharding.shards has no entry for the default shard '"
+					+ properties.getDefaultShard() + "'");
+		}
+		Map<Object, Object> targets = new HashMap<>();
+		properties.getShards().forEach((name, shard) -> {
+			HikariDataSource pool = new HikariDataSource();
+			pool.setPoolName("shard-" + name);
+			pool.setJdbcUrl(shard.getUrl());
+			pool.setUsername(shard.getUsername());
+			pool.setPassword(shard.getPassword());
+			pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+			targets.put(name, pool);
+		});
+		properties.getStores().forEach((storeId, shard) -> {
+			if (!targets.containsKey(shard)) {
+				throw new IllegalStateException("Store " + storeId + " is mapped to unknown shard '" + shard + "'");
+			}
+		});
+		TenantRoutingDataSource routing = new TenantRoutingDataSource(properties);
+		routing.setTargetDataSources(targets);
+		routing.setDefaultTargetDataSource(targets.get(properties.getDefaultShard()));
+		routing.afterPropertiesSet();
+		return routing;
+	}
+}
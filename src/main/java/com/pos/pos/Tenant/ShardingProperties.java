@@ -0,0 +1,69 @@
+package com.pos.pos.Tenant;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * pos.sharding.* settings, for example:
+ *
+ * <pre>
+ * pos.sharding.enabled=true
+ * pos.sharding.default-shard=main
+ * pos.sharding.shards.main.url=jdbc:postgresql://db1:5432/pos
+ * pos.sharding.shards.north.url=jdbc:postgresql://db2:5432/pos
+ * pos.sharding.shards.north.maximum-pool-size=20
+ * pos.sharding.stores.7=north
+ * </pre>
+ *
+ * Every shard gets its own connection pool, so a store that needs its own
+ * pool can get a shard entry of its own even when it points at the same
+ * database.
+ *
+ * The catalog (products, categories and their links) is not shared either:
+ * every shard has its own, maintained through any store that lives on it,
+ * and product and category ids only mean something within their shard.
+ */
+@Data
+@ConfigurationProperties(prefix = "pos.sharding")
+public class ShardingProperties {
+	private boolean enabled;
+	private String defaultShard = "default";
+	private Map<String, Shard> shards = new HashMap<>();
+	private Map<Long, String> stores = new HashMap<>();
+
+	public String shardFor(Long storeId) {
+		return stores.getOrDefault(storeId, defaultShard);
+	}
+
+	/**
+	 * One store id per shard, so background jobs can reach every shard by
+	 * setting {@link TenantContext}. Shards no store maps to are unreachable
+	 * and left out, except the default shard.
+	 */
+	public Map<String, Long> storePerShard() {
+		Map<String, Long> result = new TreeMap<>();
+		stores.forEach((storeId, shard) -> result.merge(shard, storeId, Math::min));
+		if (!result.containsKey(defaultShard)) {
+			// any store without a mapping lives on the default shard
+			long unmapped = TenantContext.DEFAULT_STORE_ID;
+			while (stores.containsKey(unmapped)) {
+				unmapped++;
+			}
+			result.put(defaultShard, unmapped);
+		}
+		return result;
+	}
+
+	@Data
+	public static class Shard {
+		private String url;
+		private String username;
+		private String password;
+		private int maximumPoolSize = 10;
+	}
+}
@@ -0,0 +1,57 @@
+package com.pos.pos.Tenant;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which shard the current store lives on, and a way for background jobs to
+ * visit every shard. Without sharding there is a single shard named
+ * "default". In-memory caches of shard data (catalog, analytics) are keyed
+ * by {@link #current()}, since ids are only unique within one shard.
+ */
+@Component
+public class Shards {
+	public static final String UNSHARDED = "default";
+
+	private static final Logger log = LoggerFactory.getLogger(Shards.class);
+
+	@Autowired(required = false)
+	private ShardingProperties shardingProperties;
+
+	public String current() {
+		if (!isSharded()) {
+			return UNSHARDED;
+		}
+		return shardingProperties.shardFor(TenantContext.current());
+	}
+
+	/**
+	 * Runs the task once per shard with {@link TenantContext} set to one of
+	 * the shard's stores. A failing shard is logged and the others still run.
+	 */
+	public void forEach(Consumer<String> task) {
+		if (!isSharded()) {
+			task.accept(UNSHARDED);
+			return;
+		}
+		for (Map.Entry<String, Long> shard : shardingProperties.storePerShard().entrySet()) {
+			TenantContext.set(shard.getValue());
+			try {
+				task.accept(shard.getKey());
+			} catch (RuntimeException e) {
+				log.error("Background task failed on shard {}", shard.getKey(), e);
+			} finally {
+				TenantContext.clear();
+			}
+		}
+	}
+
+	private boolean isSharded() {
+		return shardingProperties != null && shardingProperties.isEnabled();
+	}
+}
@@ -0,0 +1,55 @@
+package com.pos.pos.Tenant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Rows written before stores existed belong to the default store, or, on a
+ * shard the default store does not live on, to the first store of that
+ * shard so they stay reachable. Runs on every shard and only touches rows
+ * with no store, so it is a no-op after the first run.
+ */
+@Component
+public class TenantBackfill {
+	private static final Logger log = LoggerFactory.getLogger(TenantBackfill.class);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private Shards shards;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void assignDefaultStore() {
+		// no store set here, so this is the default store's shard
+		String defaultStoreShard = shards.current();
+		shards.forEach(shard -> {
+			Long storeId = shard.equals(defaultStoreShard) ? TenantContext.DEFAULT_STORE_ID : TenantContext.current();
+			// one transaction per shard, started after the tenant is set so it runs on that shard
+			Integer updated = transactionTemplate.execute(tx -> {
+				int rows = 0;
+				for (String entity : new String[] { "Inventory", "Order", "Invoice" }) {
+					rows += entityManager
+							.createQuery("update " + entity + " e set e.storeId = :storeId where e.storeId is null")
+							.setParameter("storeId", storeId)
+							.executeUpdate();
+				}
+				return rows;
+			});
+			if (updated != null && updated > 0) {
+				log.info("Assigned {} existing rows on shard {} to store {}", updated, shard, storeId);
+			}
+		});
+	}
+}
@@ -0,0 +1,28 @@
+package com.pos.pos.Tenant;
+
+/**
+ * Store the current request works for. Requests that don't name a store
+ * run as {@link #DEFAULT_STORE_ID}, which keeps single-store setups and
+ * existing clients working unchanged.
+ */
+public final class TenantContext {
+	public static final Long DEFAULT_STORE_ID = 1L;
+
+	private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+	private TenantContext() {
+	}
+
+	public static Long current() {
+		Long storeId = CURRENT.get();
+		return storeId != null ? storeId : DEFAULT_STORE_ID;
+	}
+
+	public static void set(Long storeId) {
+		CURRENT.set(storeId);
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+}
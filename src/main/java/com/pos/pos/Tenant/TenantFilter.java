@@ -0,0 +1,64 @@
+package com.pos.pos.Tenant;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Reads the store from the X-Store-Id header, or the storeId query
+ * parameter for clients that cannot set headers (EventSource). Runs before
+ * anything that touches the database so the routing data source sees it,
+ * but after the character encoding filter. Only the query string is looked
+ * at, never a form body, which would otherwise be parsed this early.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TenantFilter extends OncePerRequestFilter {
+	public static final String STORE_HEADER = "X-Store-Id";
+	public static final String STORE_PARAM = "storeId";
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String value = request.getHeader(STORE_HEADER);
+		if (value == null || value.isBlank()) {
+			value = queryParameter(request, STORE_PARAM);
+		}
+		Long storeId = null;
+		if (value != null && !value.isBlank()) {
+			try {
+				storeId = Long.valueOf(value.trim());
+			} catch (NumberFormatException e) {
+				response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + STORE_HEADER);
+				return;
+			}
+		}
+		TenantContext.set(storeId);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			TenantContext.clear();
+		}
+	}
+
+	private static String queryParameter(HttpServletRequest request, String name) {
+		String query = request.getQueryString();
+		if (query == null) {
+			return null;
+		}
+		String value = UriComponentsBuilder.newInstance().query(query).build().getQueryParams().getFirst(name);
+		return value == null ? null : UriUtils.decode(value, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,33 @@
+package com.pos.pos.Tenant;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the shard the current store lives on.
+ * Connections are taken when a transaction or query starts, after the
+ * {@link TenantFilter} has set the store. Work outside a request, such as
+ * background jobs, runs against the default shard.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+	private final ShardingProperties properties;
+
+	public TenantRoutingDataSource(ShardingProperties properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return properties.shardFor(TenantContext.current());
+	}
+
+	@Override
+	public void close() throws Exception {
+		for (DataSource shard : getResolvedDataSources().values()) {
+			if (shard instanceof AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.pos.pos.Util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Tokens and the refill timestamp are packed in a
+ * single AtomicLong so a take is one CAS: the upper 20 bits hold the token
+ * count and the lower 44 bits the last refill time in milliseconds.
+ */
+public class TokenBucket {
+	private static final int TIME_BITS = 44;
+	private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+	private static final long MAX_CAPACITY = (1L << (Long.SIZE - TIME_BITS)) - 1;
+
+	private final long capacity;
+	private final double refillPerMilli;
+	private final AtomicLong state;
+	private volatile long lastUsedMillis;
+
+	public TokenBucket(long capacity, double refillPerSecond) {
+		if (capacity <= 0 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY);
+		}
+		if (refillPerSecond <= 0) {
+			throw new IllegalArgumentException("refillPerSecond must be positive");
+		}
+		this.capacity = capacity;
+		this.refillPerMilli = refillPerSecond / 1000.0;
+		long now = System.currentTimeMillis();
+		this.state = new AtomicLong(pack(capacity, now));
+		this.lastUsedMillis = now;
+	}
+
+	public boolean tryAcquire() {
+		long now = System.currentTimeMillis();
+		lastUsedMillis = now;
+		while (true) {
+			long current = state.get();
+			long tokens = current >>> TIME_BITS;
+			long lastRefill = current & TIME_MASK;
+			long elapsed = Math.max(0, (now & TIME_MASK) - lastRefill);
+			long refill = (long) (elapsed * refillPerMilli);
+			long refillTime = lastRefill;
+			if (refill > 0) {
+				tokens = Math.min(capacity, tokens + refill);
+				// only advance the clock by the time the granted tokens account for
+				refillTime = tokens == capacity ? now : lastRefill + (long) (refill / refillPerMilli);
+			}
+			// any refill leaves at least one token, so an empty bucket has nothing to store
+			if (tokens == 0) {
+				return false;
+			}
+			if (state.compareAndSet(current, pack(tokens - 1, refillTime))) {
+				return true;
+			}
+		}
+	}
+
+	public long getLastUsedMillis() {
+		return lastUsedMillis;
+	}
+
+	private static long pack(long tokens, long millis) {
+		return (tokens << TIME_BITS) | (millis & TIME_MASK);
+	}
+}
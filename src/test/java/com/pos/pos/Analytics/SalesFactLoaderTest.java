@@ -0,0 +1,289 @@
+package com.pos.pos.Analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pos.pos.Model.Invoice.InvoiceStatus;
+import com.pos.pos.Model.Invoice.PaymentMethod;
+import com.pos.pos.Repository.InvoiceItemRepository;
+import com.pos.pos.Repository.ProductRepository;
+import com.pos.pos.Tenant.ShardingProperties;
+import com.pos.pos.Tenant.Shards;
+import com.pos.pos.Tenant.TenantContext;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SalesFactLoaderTest {
+	private static final LocalDateTime SOLD_AT = LocalDateTime.of(2026, 3, 2, 10, 15);
+
+	@Mock
+	private InvoiceItemRepository invoiceItemRepository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Spy
+	private Shards shards = new Shards();
+
+	@InjectMocks
+	private SalesFactLoader salesFactLoader;
+
+	@BeforeEach
+	void loadEmptyDatabase() throws Exception {
+		when(invoiceItemRepository.findMaxId()).thenReturn(0L);
+		when(invoiceItemRepository.streamSalesFacts(eq(InvoiceStatus.CANCELLED), any())).thenReturn(Stream.empty());
+		when(productRepository.findPrimaryCategories()).thenReturn(List.of());
+		when(productRepository.findPrimaryCategories(anyCollection())).thenReturn(new ArrayList<>());
+		salesFactLoader.loadAll();
+		salesFactLoader.awaitIdle();
+	}
+
+	@AfterEach
+	void shutdown() {
+		salesFactLoader.shutdown();
+	}
+
+	@Test
+	void linesAddedAfterTheInvoiceHeaderAreCounted() throws Exception {
+		// the header alone has no lines; they come in through /api/invoice-items
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(1L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(7L, 2, 10.0)));
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(2L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(8L, 1, 4.5)));
+
+		salesFactLoader.recordItem(1L);
+		salesFactLoader.recordItem(2L);
+		salesFactLoader.awaitIdle();
+
+		assertThat(revenueMinor()).isEqualTo(1450);
+		assertThat(quantity()).isEqualTo(3);
+	}
+
+	@Test
+	void cancellingTakesOutExactlyWhatWasCounted() throws Exception {
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(1L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(7L, 2, 10.0)));
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(2L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(8L, 1, 4.5)));
+		when(invoiceItemRepository.findSalesFactsByInvoiceId(50L)).thenReturn(List.of(line(7L, 2, 10.0), line(8L, 1, 4.5)));
+
+		salesFactLoader.recordItem(1L);
+		salesFactLoader.recordItem(2L);
+		salesFactLoader.reverseInvoice(50L);
+		salesFactLoader.awaitIdle();
+		assertThat(revenueMinor()).isZero();
+		assertThat(quantity()).isZero();
+
+		salesFactLoader.restoreInvoice(50L);
+		salesFactLoader.awaitIdle();
+		assertThat(revenueMinor()).isEqualTo(1450);
+	}
+
+	@Test
+	void linesOfACancelledInvoiceAreNotCounted() throws Exception {
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(3L, InvoiceStatus.CANCELLED)).thenReturn(List.of());
+
+		salesFactLoader.recordItem(3L);
+		salesFactLoader.awaitIdle();
+
+		assertThat(revenueMinor()).isZero();
+	}
+
+	@Test
+	void deletedLinesAreRetracted() throws Exception {
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(1L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(7L, 2, 10.0)));
+
+		salesFactLoader.recordItem(1L);
+		salesFactLoader.retractItem(1L);
+		salesFactLoader.awaitIdle();
+
+		assertThat(revenueMinor()).isZero();
+	}
+
+	@Test
+	void linesFromTheInitialLoadAreNotCountedTwice() throws Exception {
+		when(invoiceItemRepository.findMaxId()).thenReturn(5L);
+		when(invoiceItemRepository.streamSalesFacts(InvoiceStatus.CANCELLED, 5L)).thenReturn(Stream.of(line(7L, 2, 10.0)));
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(5L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(7L, 2, 10.0)));
+		// a second loader whose initial load already holds line 5
+		SalesFactLoader loader = newLoader();
+		try {
+			loader.loadAll();
+			loader.recordItem(5L);
+			loader.awaitIdle();
+			assertThat(revenueMinor(loader)).isEqualTo(2000);
+		} finally {
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	void eachShardKeepsItsOwnWatermarkAndFacts() throws Exception {
+		ShardingProperties sharding = new ShardingProperties();
+		sharding.setEnabled(true);
+		sharding.setStores(Map.of(7L, "north"));
+		ReflectionTestUtils.setField(shards, "shardingProperties", sharding);
+		// line ids are per database: the default shard is far ahead of north
+		when(invoiceItemRepository.findMaxId()).thenAnswer(call -> TenantContext.current() == 7L ? 3L : 100L);
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(5L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(7L, 7L, 2, 10.0)));
+		SalesFactLoader loader = newLoader();
+		try {
+			loader.loadAll();
+			TenantContext.set(7L);
+			loader.recordItem(5L);
+			loader.awaitIdle();
+			assertThat(revenueMinor(loader)).isEqualTo(2000);
+
+			TenantContext.set(1L);
+			assertThat(revenueMinor(loader)).isZero();
+		} finally {
+			TenantContext.clear();
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	void storesSharingAShardOnlySeeTheirOwnSales() throws Exception {
+		when(invoiceItemRepository.findMaxId()).thenReturn(2L);
+		when(invoiceItemRepository.streamSalesFacts(InvoiceStatus.CANCELLED, 2L))
+				.thenReturn(Stream.of(line(1L, 7L, 2, 10.0), line(2L, 7L, 1, 4.5)));
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(3L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(2L, 8L, 1, 3.0)));
+		SalesFactLoader loader = newLoader();
+		try {
+			loader.loadAll();
+			TenantContext.set(2L);
+			loader.recordItem(3L);
+			loader.awaitIdle();
+			assertThat(revenueMinor(loader)).isEqualTo(750);
+
+			TenantContext.set(1L);
+			assertThat(revenueMinor(loader)).isEqualTo(1000);
+			assertThat(loader.currentStore().topProducts(null, null, null, 10)).extracting(ProductSales::productId).containsExactly(7L);
+		} finally {
+			TenantContext.clear();
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	void aLineAndTheCancelAfterItAreAppliedAsTheyCommitted() throws Exception {
+		// the line is read as active in its own transaction; by the time the worker gets to it the invoice is cancelled
+		AtomicBoolean cancelled = new AtomicBoolean();
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(1L, InvoiceStatus.CANCELLED))
+				.thenAnswer(call -> cancelled.get() ? List.of() : List.of(line(7L, 2, 10.0)));
+		when(invoiceItemRepository.findSalesFactsByInvoiceId(50L)).thenAnswer(call -> {
+			cancelled.set(true);
+			return List.of(line(7L, 2, 10.0));
+		});
+		CountDownLatch busy = holdWorker(salesFactLoader);
+
+		List<TransactionSynchronization> record = inTransaction(() -> salesFactLoader.recordItem(1L));
+		complete(record, TransactionSynchronization.STATUS_COMMITTED);
+		List<TransactionSynchronization> cancel = inTransaction(() -> salesFactLoader.reverseInvoice(50L));
+		complete(cancel, TransactionSynchronization.STATUS_COMMITTED);
+		busy.countDown();
+		salesFactLoader.awaitIdle();
+
+		assertThat(revenueMinor()).isZero();
+		assertThat(quantity()).isZero();
+	}
+
+	@Test
+	void changesWaitForTheirTransactionAndARollbackDropsThem() throws Exception {
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(1L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(7L, 2, 10.0)));
+		when(invoiceItemRepository.findActiveSalesFactsByItemId(2L, InvoiceStatus.CANCELLED)).thenReturn(List.of(line(8L, 1, 4.5)));
+
+		List<TransactionSynchronization> rolledBack = inTransaction(() -> salesFactLoader.recordItem(1L));
+		// read after the first one, so applied after it even without a transaction
+		salesFactLoader.recordItem(2L);
+		Thread.sleep(50);
+		assertThat(revenueMinor()).isZero();
+
+		complete(rolledBack, TransactionSynchronization.STATUS_ROLLED_BACK);
+		salesFactLoader.awaitIdle();
+		assertThat(revenueMinor()).isEqualTo(450);
+	}
+
+	private SalesFactLoader newLoader() {
+		SalesFactLoader loader = new SalesFactLoader();
+		ReflectionTestUtils.setField(loader, "shards", shards);
+		ReflectionTestUtils.setField(loader, "invoiceItemRepository", invoiceItemRepository);
+		ReflectionTestUtils.setField(loader, "productRepository", productRepository);
+		ReflectionTestUtils.setField(loader, "transactionManager", transactionManager);
+		return loader;
+	}
+
+	// runs the work as if inside a transaction and hands back what it registered for the commit
+	private static List<TransactionSynchronization> inTransaction(Runnable work) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			work.run();
+			return TransactionSynchronizationManager.getSynchronizations();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+
+	private static CountDownLatch holdWorker(SalesFactLoader loader) {
+		CountDownLatch latch = new CountDownLatch(1);
+		ExecutorService worker = (ExecutorService) ReflectionTestUtils.getField(loader, "worker");
+		worker.execute(() -> {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		return latch;
+	}
+
+	private long revenueMinor() {
+		return revenueMinor(salesFactLoader);
+	}
+
+	private static long revenueMinor(SalesFactLoader loader) {
+		return loader.currentStore().topProducts(null, null, null, 100).stream().mapToLong(ProductSales::revenueMinor).sum();
+	}
+
+	private long quantity() {
+		return salesFactLoader.currentStore().topProducts(null, null, null, 100).stream().mapToLong(ProductSales::quantity).sum();
+	}
+
+	private static SalesFactRow line(Long productId, int quantity, double total) {
+		return line(1L, productId, quantity, total);
+	}
+
+	private static SalesFactRow line(Long storeId, Long productId, int quantity, double total) {
+		return new SalesFactRow(storeId, productId, SOLD_AT, quantity, total, PaymentMethod.CASH);
+	}
+}
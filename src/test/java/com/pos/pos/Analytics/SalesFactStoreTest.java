@@ -0,0 +1,102 @@
+package com.pos.pos.Analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.pos.pos.Model.Invoice.PaymentMethod;
+
+class SalesFactStoreTest {
+	private static final LocalDateTime MORNING = LocalDateTime.of(2026, 3, 2, 9, 30);
+	private static final LocalDateTime EVENING = LocalDateTime.of(2026, 3, 2, 19, 5);
+	private static final Map<Long, Long> CATEGORIES = Map.of(1L, 10L, 2L, 10L, 3L, 20L);
+
+	private final SalesFactStore store = new SalesFactStore();
+
+	@Test
+	void topProductsRanksByRevenueWithinThePeriodAndCategory() {
+		store.append(List.of(
+				row(1L, MORNING, 2, 10.0, PaymentMethod.CASH),
+				row(2L, MORNING, 1, 30.0, PaymentMethod.CARD),
+				row(3L, EVENING, 5, 50.0, PaymentMethod.CASH),
+				row(4L, EVENING, 1, 1.0, PaymentMethod.CASH)), CATEGORIES, 1);
+
+		assertThat(store.topProducts(null, null, null, 2))
+				.containsExactly(new ProductSales(3L, 20L, 5, 5000), new ProductSales(2L, 10L, 1, 3000));
+		assertThat(store.topProducts(MORNING.minusHours(1), MORNING.plusHours(1), null, 10))
+				.extracting(ProductSales::productId).containsExactly(2L, 1L);
+		assertThat(store.topProducts(null, null, 10L, 10))
+				.extracting(ProductSales::productId).containsExactly(2L, 1L);
+		assertThat(store.topProducts(null, null, 99L, 10)).isEmpty();
+		// products without a category are kept under a null category
+		assertThat(store.topProducts(null, null, null, 10)).contains(new ProductSales(4L, null, 1, 100));
+	}
+
+	@Test
+	void topProductsByCategorySumsEachCategory() {
+		store.append(List.of(
+				row(1L, MORNING, 2, 10.0, PaymentMethod.CASH),
+				row(2L, MORNING, 1, 30.0, PaymentMethod.CARD),
+				row(3L, EVENING, 5, 25.0, PaymentMethod.CASH)), CATEGORIES, 1);
+
+		List<CategorySales> categories = store.topProductsByCategory(null, null, 1);
+
+		assertThat(categories).extracting(CategorySales::categoryId).containsExactly(10L, 20L);
+		assertThat(categories.get(0).revenueMinor()).isEqualTo(4000);
+		assertThat(categories.get(0).topProducts()).extracting(ProductSales::productId).containsExactly(2L);
+		assertThat(categories.get(1).revenueMinor()).isEqualTo(2500);
+	}
+
+	@Test
+	void salesByHourSplitsByPaymentMethod() {
+		store.append(List.of(
+				row(1L, MORNING, 2, 10.0, PaymentMethod.CASH),
+				row(2L, MORNING.plusMinutes(20), 1, 30.0, PaymentMethod.CARD),
+				row(3L, MORNING.plusMinutes(25), 3, 5.0, PaymentMethod.CARD),
+				row(3L, EVENING, 5, 25.0, null)), CATEGORIES, 1);
+
+		assertThat(store.salesByHourAndPaymentMethod(null, null)).containsExactly(
+				new HourlySales(9, "CASH", 1, 2, 1000),
+				new HourlySales(9, "CARD", 2, 4, 3500),
+				new HourlySales(19, "CASH", 1, 5, 2500));
+		assertThat(store.salesByHourAndPaymentMethod(EVENING.minusMinutes(5), null))
+				.containsExactly(new HourlySales(19, "CASH", 1, 5, 2500));
+	}
+
+	@Test
+	void negatedRowsTakeSalesOutAgain() {
+		List<SalesFactRow> invoice = List.of(row(1L, MORNING, 2, 10.0, PaymentMethod.CASH), row(3L, MORNING, 1, 2.5, PaymentMethod.CASH));
+		store.append(invoice, CATEGORIES, 1);
+		store.append(List.of(row(1L, EVENING, 1, 10.0, PaymentMethod.CASH)), CATEGORIES, 1);
+		store.append(invoice, CATEGORIES, -1);
+
+		assertThat(store.topProducts(null, null, null, 10)).containsExactly(new ProductSales(1L, 10L, 1, 1000));
+		assertThat(store.size()).isEqualTo(5);
+	}
+
+	@Test
+	void scansCoverEveryChunk() {
+		int rows = SalesChunk.CAPACITY * 2 + 123;
+		List<SalesFactRow> batch = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			batch.add(row(1L + i % 3, MORNING.plusSeconds(i), 1, 1.0, PaymentMethod.CASH));
+		}
+		store.append(batch, CATEGORIES, 1);
+
+		assertThat(store.size()).isEqualTo(rows);
+		assertThat(store.topProducts(null, null, null, 10).stream().mapToLong(ProductSales::quantity).sum()).isEqualTo(rows);
+		// the zone maps must not drop rows of a chunk that only partly overlaps the period
+		LocalDateTime from = MORNING.plusSeconds(SalesChunk.CAPACITY - 10);
+		LocalDateTime to = MORNING.plusSeconds(SalesChunk.CAPACITY + 10);
+		assertThat(store.topProducts(from, to, null, 10).stream().mapToLong(ProductSales::quantity).sum()).isEqualTo(20);
+	}
+
+	private static SalesFactRow row(Long productId, LocalDateTime soldAt, int quantity, double total, PaymentMethod paymentMethod) {
+		return new SalesFactRow(1L, productId, soldAt, quantity, total, paymentMethod);
+	}
+}
@@ -0,0 +1,135 @@
+package com.pos.pos.Catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.pos.pos.Model.Category;
+import com.pos.pos.Model.NumberSeries;
+import com.pos.pos.Model.Product;
+import com.pos.pos.Repository.NumberSeriesRepository;
+import com.pos.pos.Repository.ProductRepository;
+import com.pos.pos.Tenant.Shards;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotTest {
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private NumberSeriesRepository numberSeriesRepository;
+
+	@Spy
+	private Shards shards = new Shards();
+
+	@InjectMocks
+	private CatalogSnapshot catalogSnapshot;
+
+	@Test
+	void aVersionBumpedByAnotherInstanceRebuildsTheBlob() {
+		when(productRepository.findAll()).thenReturn(catalog(3));
+		storedVersion(1);
+
+		CatalogSnapshot.Blob first = catalogSnapshot.get();
+		assertThat(catalogSnapshot.get()).isSameAs(first);
+
+		// another instance changed a product and bumped the row
+		when(productRepository.findAll()).thenReturn(catalog(4));
+		storedVersion(2);
+
+		CatalogSnapshot.Blob second = catalogSnapshot.get();
+		assertThat(second.version()).isEqualTo(2);
+		assertThat(second.smileEtag()).isNotEqualTo(first.smileEtag());
+		verify(productRepository, times(2)).findAll();
+	}
+
+	@Test
+	void invalidateBumpsTheStoredVersion() {
+		catalogSnapshot.invalidate();
+
+		verify(numberSeriesRepository).increment(CatalogSnapshot.VERSION_KEY);
+	}
+
+	@Test
+	void ifNoneMatchIsComparedWeaklyAcrossAList() {
+		String etag = "\"abc123\"";
+
+		assertThat(CatalogSnapshot.matches("\"abc123\"", etag)).isTrue();
+		assertThat(CatalogSnapshot.matches("W/\"abc123\"", etag)).isTrue();
+		assertThat(CatalogSnapshot.matches("\"old\", W/\"abc123\"", etag)).isTrue();
+		assertThat(CatalogSnapshot.matches("\"a,b\",\"abc123\"", etag)).isTrue();
+		assertThat(CatalogSnapshot.matches(" * ", etag)).isTrue();
+
+		assertThat(CatalogSnapshot.matches(null, etag)).isFalse();
+		assertThat(CatalogSnapshot.matches("", etag)).isFalse();
+		assertThat(CatalogSnapshot.matches("\"abc1234\"", etag)).isFalse();
+		assertThat(CatalogSnapshot.matches("abc123", etag)).isFalse();
+		assertThat(CatalogSnapshot.matches("\"abc123", etag)).isFalse();
+		assertThat(CatalogSnapshot.matches("\"old\", \"older\"", etag)).isFalse();
+	}
+
+	@Test
+	void theSmileSnapshotIsAFractionOfTheEntityJson() throws Exception {
+		List<Product> products = catalog(500);
+		when(productRepository.findAll()).thenReturn(products);
+		storedVersion(1);
+		// what GET /api/products sends, with Spring Boot's date format
+		ObjectMapper entityMapper = JsonMapper.builder().findAndAddModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+		int entityJson = entityMapper.writeValueAsBytes(products).length;
+
+		CatalogSnapshot.Blob blob = catalogSnapshot.get();
+
+		assertThat(blob.json().length).isLessThan(entityJson / 2);
+		assertThat(blob.smile().length).isLessThan(entityJson / 4);
+		// a register that already has this version revalidates without a body
+		assertThat(CatalogSnapshot.matches(blob.smileEtag(), blob.smileEtag())).isTrue();
+	}
+
+	private void storedVersion(long version) {
+		when(numberSeriesRepository.findById(CatalogSnapshot.VERSION_KEY))
+				.thenReturn(Optional.of(NumberSeries.builder().seriesKey(CatalogSnapshot.VERSION_KEY).nextValue(version).build()));
+	}
+
+	private static List<Product> catalog(int size) {
+		LocalDateTime created = LocalDateTime.of(2026, 1, 5, 10, 15, 30);
+		List<Product> products = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Category category = Category.builder().id((long) i % 10 + 1).name("Categoría " + i % 10)
+					.description("Productos de la categoría " + i % 10).createdAt(created).updatedAt(created).build();
+			products.add(Product.builder()
+					.id((long) i + 1)
+					.sku(String.format("SKU-%05d", i))
+					.brand("Marca " + i % 20)
+					.name("Producto de prueba " + i)
+					.description("Producto de prueba " + i + " para el catálogo de la tienda")
+					.barCode(String.format("77%011d", i))
+					.measureUnit("UN")
+					.costPrice(Math.round((1 + i * 0.37) * 100) / 100.0)
+					.isActive(true)
+					.taxPercentage(19.0)
+					.productCategories(Set.of(category))
+					.createdAt(created)
+					.updatedAt(created)
+					.build());
+		}
+		return products;
+	}
+}
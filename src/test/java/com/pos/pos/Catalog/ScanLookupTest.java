@@ -0,0 +1,94 @@
+package com.pos.pos.Catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pos.pos.Model.Category;
+import com.pos.pos.Model.Product;
+import com.pos.pos.Repository.ProductRepository;
+import com.pos.pos.Tenant.Shards;
+
+@ExtendWith(MockitoExtension.class)
+class ScanLookupTest {
+	@Mock
+	private ProductRepository productRepository;
+
+	@Spy
+	private Shards shards = new Shards();
+
+	@InjectMocks
+	private ScanLookup scanLookup;
+
+	@Test
+	void concurrentScansShareADetachedCopy() throws Exception {
+		Product managed = managedProduct();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(productRepository.findWithCategoriesByBarCode("770")).thenAnswer(invocation -> {
+			entered.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return managed;
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(6);
+		try {
+			List<Future<Product>> scans = new ArrayList<>();
+			scans.add(executor.submit(() -> scanLookup.find("770")));
+			assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+			for (int i = 0; i < 5; i++) {
+				scans.add(executor.submit(() -> scanLookup.find("770")));
+			}
+			Thread.sleep(100);
+			release.countDown();
+
+			for (Future<Product> scan : scans) {
+				Product product = scan.get(5, TimeUnit.SECONDS);
+				assertThat(product).isNotSameAs(managed);
+				assertThat(product.getBarCode()).isEqualTo("770");
+				assertThat(product.getProductCategories()).isNotSameAs(managed.getProductCategories())
+						.isInstanceOf(HashSet.class)
+						.hasSize(1);
+				Category category = product.getProductCategories().iterator().next();
+				assertThat(category).isNotSameAs(managed.getProductCategories().iterator().next());
+				assertThat(category.getName()).isEqualTo("Bebidas");
+				assertThat(category.getProducts()).isNull();
+			}
+			verify(productRepository, times(1)).findWithCategoriesByBarCode("770");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void unknownBarCodeIsNull() {
+		when(productRepository.findWithCategoriesByBarCode("missing")).thenReturn(null);
+		assertThat(scanLookup.find("missing")).isNull();
+	}
+
+	private static Product managedProduct() {
+		// stands in for the lazy inverse side a Session-bound category carries
+		Set<Product> otherProducts = new HashSet<>(Set.of(Product.builder().id(2L).barCode("771").build()));
+		Category category = Category.builder().id(3L).name("Bebidas").products(otherProducts).build();
+		return Product.builder().id(1L).barCode("770").name("Agua").costPrice(2.5)
+				.productCategories(new HashSet<>(Set.of(category))).build();
+	}
+}
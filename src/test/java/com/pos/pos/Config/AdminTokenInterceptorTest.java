@@ -0,0 +1,54 @@
+package com.pos.pos.Config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AdminTokenInterceptorTest {
+	private AdminTokenInterceptor interceptor;
+
+	@BeforeEach
+	void setUp() {
+		interceptor = new AdminTokenInterceptor();
+		ReflectionTestUtils.setField(interceptor, "token", "s3cret");
+	}
+
+	@Test
+	void theConfiguredTokenGetsThrough() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(interceptor.preHandle(request("s3cret"), response, null)).isTrue();
+	}
+
+	@Test
+	void aMissingOrWrongTokenIsUnauthorized() {
+		MockHttpServletResponse missing = new MockHttpServletResponse();
+		MockHttpServletResponse wrong = new MockHttpServletResponse();
+
+		assertThat(interceptor.preHandle(request(null), missing, null)).isFalse();
+		assertThat(interceptor.preHandle(request("s3cre"), wrong, null)).isFalse();
+		assertThat(missing.getStatus()).isEqualTo(401);
+		assertThat(wrong.getStatus()).isEqualTo(401);
+	}
+
+	@Test
+	void withoutAConfiguredTokenEveryRequestIsRefused() {
+		ReflectionTestUtils.setField(interceptor, "token", "");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(interceptor.preHandle(request(""), response, null)).isFalse();
+		assertThat(response.getStatus()).isEqualTo(403);
+	}
+
+	private static MockHttpServletRequest request(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/query-stats");
+		if (token != null) {
+			request.addHeader(AdminTokenInterceptor.TOKEN_HEADER, token);
+		}
+		return request;
+	}
+}
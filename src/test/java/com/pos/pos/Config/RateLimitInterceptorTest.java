@@ -0,0 +1,85 @@
+package com.pos.pos.Config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pos.pos.Util.TokenBucket;
+
+class RateLimitInterceptorTest {
+	private RateLimitInterceptor interceptor;
+
+	@BeforeEach
+	void setUp() {
+		interceptor = new RateLimitInterceptor();
+		ReflectionTestUtils.setField(interceptor, "capacity", 2L);
+		ReflectionTestUtils.setField(interceptor, "refillPerSecond", 0.001);
+		ReflectionTestUtils.setField(interceptor, "maxClients", 100);
+		ReflectionTestUtils.setField(interceptor, "knownTerminals", Set.of());
+	}
+
+	@Test
+	void eachTerminalHasItsOwnBucket() {
+		assertThat(allowed("R1", "10.0.0.1")).isTrue();
+		assertThat(allowed("R1", "10.0.0.1")).isTrue();
+		assertThat(allowed("R1", "10.0.0.1")).isFalse();
+		assertThat(allowed("R2", "10.0.0.1")).isTrue();
+	}
+
+	@Test
+	void malformedTerminalIdsCountAgainstTheAddress() {
+		assertThat(allowed("../../etc", "10.0.0.2")).isTrue();
+		assertThat(allowed("x".repeat(500), "10.0.0.2")).isTrue();
+		assertThat(allowed("R 1", "10.0.0.2")).isFalse();
+		assertThat(interceptor.size()).isEqualTo(1);
+	}
+
+	@Test
+	void onlyListedTerminalsGetABucketWhenTerminalsAreConfigured() {
+		ReflectionTestUtils.setField(interceptor, "knownTerminals", Set.of("S1-R1"));
+
+		allowed("S1-R1", "10.0.0.3");
+		for (int i = 0; i < 50; i++) {
+			allowed("WEB-" + i, "10.0.0.3");
+		}
+
+		assertThat(interceptor.size()).isEqualTo(2);
+	}
+
+	@Test
+	void newClientsShareOneBucketPastTheCap() {
+		for (int i = 0; i < 1000; i++) {
+			allowed("R" + i, "10.0.0.4");
+		}
+
+		// the cap plus the shared overflow bucket
+		assertThat(interceptor.size()).isEqualTo(101);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void theSweepDropsIdleBuckets() {
+		allowed("R1", "10.0.0.5");
+		allowed("R2", "10.0.0.5");
+		Map<String, TokenBucket> buckets = (Map<String, TokenBucket>) ReflectionTestUtils.getField(interceptor, "buckets");
+		ReflectionTestUtils.setField(buckets.get("1:R1"), "lastUsedMillis", System.currentTimeMillis() - 11 * 60 * 1000L);
+
+		interceptor.sweepIdle();
+
+		assertThat(buckets).containsOnlyKeys("1:R2");
+	}
+
+	private boolean allowed(String terminal, String address) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/scan/1");
+		request.addHeader(RateLimitInterceptor.TERMINAL_HEADER, terminal);
+		request.setRemoteAddr(address);
+		return interceptor.preHandle(request, new MockHttpServletResponse(), null);
+	}
+}
@@ -0,0 +1,41 @@
+package com.pos.pos.Diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlNormalizerTest {
+
+	@Test
+	void literalsBecomePlaceholders() {
+		assertThat(SqlNormalizer.normalize("select * from orders where id = 42 and number = 'O''Brien-7' and total > -3.5"))
+				.isEqualTo("select * from orders where id = ? and number = ? and total > ?");
+	}
+
+	@Test
+	void aliasesAndQualifiedNamesKeepTheirDigits() {
+		assertThat(SqlNormalizer.normalize("select o1_0.id, p1_0.bar_code from orders o1_0 join products p1_0 on p1_0.id=o1_0.product_id where o1_0.store_id=?"))
+				.isEqualTo("select o1_0.id, p1_0.bar_code from orders o1_0 join products p1_0 on p1_0.id=o1_0.product_id where o1_0.store_id=?");
+	}
+
+	@Test
+	void inListsOfAnyLengthShareAShape() {
+		String three = SqlNormalizer.normalize("select * from products where id in (1, 2, 3)");
+		String two = SqlNormalizer.normalize("select * from products where id IN (?,?)");
+
+		assertThat(three).isEqualTo("select * from products where id in (?...)");
+		assertThat(two).isEqualTo(three);
+	}
+
+	@Test
+	void whitespaceIsSqueezed() {
+		assertThat(SqlNormalizer.normalize("  select *\n\tfrom   invoices\r\n where id = ?  "))
+				.isEqualTo("select * from invoices where id = ?");
+	}
+
+	@Test
+	void nullAndOversizedStatementsAreHandled() {
+		assertThat(SqlNormalizer.normalize(null)).isEmpty();
+		assertThat(SqlNormalizer.normalize("select " + "a, ".repeat(1000) + "b from t")).hasSize(1000);
+	}
+}
@@ -0,0 +1,107 @@
+package com.pos.pos.Diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TimedDataSourceTest {
+	@Mock
+	private DataSource target;
+
+	@Mock
+	private Connection connection;
+
+	@Mock
+	private PreparedStatement slow;
+
+	@Mock
+	private PreparedStatement fast;
+
+	@Mock
+	private Statement plain;
+
+	private final QueryStats queryStats = new QueryStats(true, 0, 10);
+	private TimedDataSource dataSource;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		when(target.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement("select * from orders where id = ?")).thenReturn(slow);
+		when(connection.prepareStatement("select * from products where id = ?")).thenReturn(fast);
+		when(connection.createStatement()).thenReturn(plain);
+		when(slow.executeQuery()).thenAnswer(call -> {
+			Thread.sleep(20);
+			return null;
+		});
+		dataSource = new TimedDataSource(target, queryStats);
+	}
+
+	@Test
+	void executionsAreTimedPerShapeAndSortedByLatency() throws SQLException {
+		try (Connection timed = dataSource.getConnection()) {
+			timed.prepareStatement("select * from orders where id = ?").executeQuery();
+			for (int i = 0; i < 5; i++) {
+				timed.prepareStatement("select * from products where id = ?").executeQuery();
+			}
+			timed.createStatement().execute("delete from outbox_events where id = 7");
+		}
+
+		List<StatementStats> byLatency = queryStats.topStatements(10, "max");
+		assertThat(byLatency.get(0).sql()).isEqualTo("select * from orders where id = ?");
+		assertThat(byLatency.get(0).maxMillis()).isGreaterThanOrEqualTo(20);
+		assertThat(byLatency).extracting(StatementStats::sql).contains("delete from outbox_events where id = ?");
+
+		List<StatementStats> byTotal = queryStats.topStatements(10, "total");
+		assertThat(byTotal.get(0).timed()).isEqualTo(1);
+		assertThat(queryStats.topStatements(10, "mean")).filteredOn(stats -> stats.sql().contains("products"))
+				.singleElement().extracting(StatementStats::timed).isEqualTo(5L);
+	}
+
+	@Test
+	void failedExecutionsCountAsErrors() throws SQLException {
+		when(fast.executeUpdate()).thenThrow(new SQLException("boom"));
+
+		try (Connection timed = dataSource.getConnection()) {
+			PreparedStatement statement = timed.prepareStatement("select * from products where id = ?");
+			assertThatThrownBy(statement::executeUpdate).isInstanceOf(SQLException.class).hasMessage("boom");
+		}
+
+		assertThat(queryStats.topStatements(10, "p99").get(0).errors()).isEqualTo(1);
+	}
+
+	@Test
+	void connectionsAreNotWrappedWhileCollectionIsOff() throws SQLException {
+		queryStats.setEnabled(false);
+
+		assertThat(dataSource.getConnection()).isSameAs(connection);
+	}
+
+	@Test
+	void onlyThePrimaryDataSourceBeanIsWrapped(@Mock ObjectProvider<QueryStats> provider) {
+		when(provider.getObject()).thenReturn(queryStats);
+		TimedDataSourcePostProcessor postProcessor = new TimedDataSourcePostProcessor(provider);
+
+		assertThat(postProcessor.postProcessAfterInitialization(target, "dataSource")).isInstanceOf(TimedDataSource.class);
+		assertThat(postProcessor.postProcessAfterInitialization(target, "reportingDataSource")).isSameAs(target);
+		assertThat(postProcessor.postProcessAfterInitialization(dataSource, "dataSource")).isSameAs(dataSource);
+	}
+}
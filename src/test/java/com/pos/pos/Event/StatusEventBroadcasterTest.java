@@ -0,0 +1,79 @@
+package com.pos.pos.Event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class StatusEventBroadcasterTest {
+	private final StatusEventBroadcaster broadcaster = new StatusEventBroadcaster();
+
+	@AfterEach
+	void shutdown() {
+		broadcaster.shutdown();
+	}
+
+	@Test
+	void eventIdsRoundTripWithinOneRun() {
+		StatusChangeEvent event = broadcaster.publish(1L, StatusChangeEvent.ORDER, 10L, "1-POS-000001", "PENDING");
+		assertThat(broadcaster.sequenceOf(broadcaster.eventId(event))).isEqualTo(event.id());
+	}
+
+	@Test
+	void aSubscriberThatFallsBehindIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+		CountDownLatch busy = occupySenders();
+		try {
+			broadcaster.subscribe(1L, null);
+			broadcaster.subscribe(2L, null);
+
+			// nothing is being sent, so store 1's buffer fills up and it is let go
+			for (int i = 0; i < 300; i++) {
+				broadcaster.publish(1L, StatusChangeEvent.ORDER, (long) i, null, "PENDING");
+			}
+
+			assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+			broadcaster.publish(2L, StatusChangeEvent.ORDER, 1L, null, "PENDING");
+			assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+		} finally {
+			busy.countDown();
+		}
+	}
+
+	@Test
+	void idsFromAnotherRunAreNotResumable() {
+		StatusEventBroadcaster previousRun = new StatusEventBroadcaster();
+		StatusChangeEvent old = previousRun.publish(1L, StatusChangeEvent.ORDER, 10L, null, "PENDING");
+		String oldId = previousRun.eventId(old);
+		previousRun.shutdown();
+
+		assertThat(broadcaster.sequenceOf(oldId)).isNull();
+		// the bare numbers older clients sent are treated the same way
+		assertThat(broadcaster.sequenceOf("500")).isNull();
+		assertThat(broadcaster.sequenceOf("garbage-x")).isNull();
+	}
+
+	// parks every sender thread until the latch is released
+	private CountDownLatch occupySenders() throws InterruptedException {
+		ThreadPoolExecutor sender = (ThreadPoolExecutor) ReflectionTestUtils.getField(broadcaster, "sender");
+		int threads = sender.getMaximumPoolSize();
+		CountDownLatch started = new CountDownLatch(threads);
+		CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < threads; i++) {
+			sender.execute(() -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		return release;
+	}
+}
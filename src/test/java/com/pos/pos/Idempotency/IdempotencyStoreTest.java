@@ -0,0 +1,138 @@
+package com.pos.pos.Idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.pos.Model.IdempotencyRecord;
+import com.pos.pos.Repository.IdempotencyRecordRepository;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyStoreTest {
+	@Mock
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	private IdempotencyStore store;
+
+	@BeforeEach
+	void setUp() {
+		store = new IdempotencyStore(16);
+		ReflectionTestUtils.setField(store, "idempotencyRecordRepository", idempotencyRecordRepository);
+		ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(store, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(store, "retentionHours", 24L);
+		when(transactionTemplate.execute(any())).thenAnswer(call -> call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	@Test
+	void runsOnceAndReplaysTheSameRequest() {
+		when(idempotencyRecordRepository.insertIfAbsent(anyString(), anyString(), any())).thenReturn(1);
+		AtomicInteger runs = new AtomicInteger();
+
+		ResponseEntity<?> first = store.execute("orders", "k1", Map.of("total", "10"), () -> Map.of("id", runs.incrementAndGet()));
+		ResponseEntity<?> second = store.execute("orders", "k1", Map.of("total", "10"), () -> Map.of("id", runs.incrementAndGet()));
+
+		assertThat(runs).hasValue(1);
+		assertThat(second.getBody()).isEqualTo(first.getBody());
+		assertThat(second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		verify(idempotencyRecordRepository).complete(eq("1:orders:k1"), eq(200), eq("{\"id\":1}"));
+	}
+
+	@Test
+	void rejectsAReusedKeyWithADifferentRequest() {
+		when(idempotencyRecordRepository.insertIfAbsent(anyString(), anyString(), any())).thenReturn(1);
+		store.execute("orders", "k2", Map.of("total", "10"), () -> Map.of("id", 1));
+
+		assertThatThrownBy(() -> store.execute("orders", "k2", Map.of("total", "99"), () -> Map.of("id", 2)))
+				.isInstanceOf(ResponseStatusException.class)
+				.extracting(e -> ((ResponseStatusException) e).getStatusCode())
+				.isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	@Test
+	void replaysAKeyClaimedByAnotherInstance() {
+		// the insert lost to a row another instance committed first
+		when(idempotencyRecordRepository.insertIfAbsent(anyString(), anyString(), any())).thenReturn(0);
+		String hash = fingerprintOf(Map.of("total", "10"));
+		when(idempotencyRecordRepository.findById("1:invoices:k3")).thenReturn(Optional.of(
+				IdempotencyRecord.builder().recordKey("1:invoices:k3").requestHash(hash).responseStatus(200).responseBody("{\"id\":7}").build()));
+
+		ResponseEntity<?> response = store.execute("invoices", "k3", Map.of("total", "10"), () -> {
+			throw new AssertionError("must not run again");
+		});
+
+		assertThat(response.getBody()).isEqualTo("{\"id\":7}");
+		assertThat(response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		verify(idempotencyRecordRepository, never()).complete(anyString(), anyInt(), anyString());
+	}
+
+	@Test
+	void fingerprintsTheParametersAndBodyOfARequest() {
+		assertThat(fingerprintOf(json("{\"total\":10}"))).isEqualTo(fingerprintOf(json("{\"total\":10}")))
+				.isNotEqualTo(fingerprintOf(json("{\"total\":99}")));
+
+		MockHttpServletRequest form = new MockHttpServletRequest("POST", "/api/orders");
+		form.addParameter("total", "10");
+		form.addParameter("notes", "a");
+		MockHttpServletRequest reordered = new MockHttpServletRequest("POST", "/api/orders");
+		reordered.addParameter("notes", "a");
+		reordered.addParameter("total", "10");
+		assertThat(fingerprintOf(form)).isEqualTo(fingerprintOf(reordered));
+	}
+
+	@Test
+	void forgetsCachedKeysAfterTheRetention() throws Exception {
+		when(idempotencyRecordRepository.insertIfAbsent(anyString(), anyString(), any())).thenReturn(1);
+		AtomicInteger runs = new AtomicInteger();
+		store.execute("orders", "k4", Map.of("total", "10"), () -> runs.incrementAndGet());
+
+		// the row is purged after the retention, the cached copy must not outlive it
+		ReflectionTestUtils.setField(store, "retentionHours", 0L);
+		Thread.sleep(5);
+		store.execute("orders", "k4", Map.of("total", "10"), () -> runs.incrementAndGet());
+
+		assertThat(runs).hasValue(2);
+	}
+
+	private static MockHttpServletRequest json(String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/invoices");
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+
+	private String fingerprintOf(Object request) {
+		return ReflectionTestUtils.invokeMethod(store, "fingerprint", request);
+	}
+}
@@ -0,0 +1,304 @@
+package com.pos.pos.LoadTest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Drives a multi-store checkout workload against the POS API: every
+ * register scans a few products, creates the order and its lines, issues
+ * the invoice and its lines, and takes what it sold out of stock.
+ * Each register runs on its own virtual thread and sends its store's
+ * X-Store-Id. Every store gets its own products and stock, since stores on
+ * different shards do not share a catalog.
+ *
+ * Run with {@code mvn -Ploadtest verify}; settings are system properties
+ * prefixed with {@code loadtest.}, see {@link Settings}. Without
+ * {@code loadtest.baseUrl} the application is started in this JVM, see
+ * {@link InProcessPos}. Fails with an exception, and so fails the build,
+ * when the error rate is above {@code loadtest.maxErrorRate}.
+ */
+public class CheckoutLoadHarness {
+	private static final String[] PAYMENT_METHODS = { "CASH", "CARD", "TRANSFER", "CHECK" };
+
+	private final Settings settings;
+	private final PosClient client;
+	private final String runId = Long.toString(System.currentTimeMillis(), 36);
+	private final Map<Long, List<CatalogItem>> catalogs = new HashMap<>();
+	private final LongAdder checkouts = new LongAdder();
+
+	public CheckoutLoadHarness(Settings settings, String baseUrl) {
+		this.settings = settings;
+		HttpClient http = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+		this.client = new PosClient(baseUrl, http);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Settings settings = Settings.fromSystemProperties();
+		// exec:java runs in the Maven JVM, so failing means throwing rather than System.exit
+		try (InProcessPos pos = settings.baseUrl == null ? InProcessPos.start() : null) {
+			String baseUrl = pos == null ? settings.baseUrl : pos.baseUrl();
+			double errorRate = new CheckoutLoadHarness(settings, baseUrl).run();
+			if (errorRate > settings.maxErrorRate) {
+				throw new IllegalStateException(String.format("Error rate %.2f%% is above the allowed %.2f%%",
+						errorRate * 100, settings.maxErrorRate * 100));
+			}
+		}
+	}
+
+	public double run() throws InterruptedException, IOException {
+		System.out.printf("Seeding %d products for each of %d stores against %s%n", settings.products, settings.stores, client.baseUrl());
+		for (long store = 1; store <= settings.stores; store++) {
+			List<CatalogItem> catalog = seedCatalog(store);
+			if (catalog.isEmpty()) {
+				throw new IllegalStateException("Could not seed any product for store " + store
+						+ ", is the application running at " + client.baseUrl() + "?");
+			}
+			catalogs.put(store, catalog);
+		}
+		client.stats().values().forEach(EndpointStats::reset);
+
+		int registers = settings.stores * settings.registersPerStore;
+		long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.warmupSeconds);
+		long end = warmupEnd + TimeUnit.SECONDS.toNanos(settings.durationSeconds);
+		System.out.printf("Running %d registers (%d stores x %d) for %ds after %ds warm-up%n",
+				registers, settings.stores, settings.registersPerStore, settings.durationSeconds, settings.warmupSeconds);
+
+		long measureStart;
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (long store = 1; store <= settings.stores; store++) {
+				for (int register = 1; register <= settings.registersPerStore; register++) {
+					long storeId = store;
+					String terminal = "S" + store + "-R" + register;
+					executor.execute(() -> runRegister(storeId, terminal, end));
+				}
+			}
+			Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(warmupEnd - System.nanoTime())));
+			client.stats().values().forEach(EndpointStats::reset);
+			checkouts.reset();
+			measureStart = System.nanoTime();
+		}
+		// up to the last register finishing its checkout, which can run past the deadline
+		return report((System.nanoTime() - measureStart) / 1e9);
+	}
+
+	private List<CatalogItem> seedCatalog(long store) {
+		List<CatalogItem> catalog = new ArrayList<>();
+		for (int i = 0; i < settings.products; i++) {
+			double price = ThreadLocalRandom.current().nextInt(100, 5000) / 100.0;
+			String barCode = "LT" + runId + "S" + store + String.format("%05d", i);
+			Map<String, Object> product = new LinkedHashMap<>();
+			product.put("sku", "SKU-" + barCode);
+			product.put("name", "Load test product " + i);
+			product.put("barCode", barCode);
+			product.put("costPrice", price);
+			product.put("isActive", true);
+			product.put("taxPercentage", 19.0);
+			JsonNode created = client.post("setup product", "/api/products", store, null, product);
+			if (created == null || !created.hasNonNull("id")) {
+				continue;
+			}
+			long productId = created.get("id").asLong();
+			Map<String, Object> inventory = new LinkedHashMap<>();
+			inventory.put("quantity", 1_000_000);
+			inventory.put("product.id", productId);
+			JsonNode stock = client.post("setup inventory", "/api/inventories", store, null, inventory);
+			Long inventoryId = stock != null && stock.hasNonNull("id") ? stock.get("id").asLong() : null;
+			catalog.add(new CatalogItem(productId, barCode, inventoryId, price));
+		}
+		return catalog;
+	}
+
+	private void runRegister(long store, String terminal, long end) {
+		while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+			checkout(store, terminal);
+			checkouts.increment();
+			pause(settings.thinkTimeMillis);
+		}
+	}
+
+	// order and invoice numbers are left to the server's allocator
+	private void checkout(long store, String terminal) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		List<CatalogItem> catalog = catalogs.get(store);
+		int lines = 1 + random.nextInt(settings.maxLinesPerCheckout);
+		List<CatalogItem> basket = new ArrayList<>(lines);
+		List<Integer> quantities = new ArrayList<>(lines);
+		double subtotal = 0;
+		for (int i = 0; i < lines; i++) {
+			CatalogItem item = pick(catalog, random);
+			client.get("GET /api/products/{barCode}", "/api/products/" + item.barCode, store, terminal);
+			int quantity = 1 + random.nextInt(3);
+			basket.add(item);
+			quantities.add(quantity);
+			subtotal += item.price * quantity;
+		}
+		double tax = round(subtotal * 0.19);
+		double total = round(subtotal + tax);
+		Map<String, Object> order = new LinkedHashMap<>();
+		order.put("status", "CONFIRMED");
+		order.put("subtotal", round(subtotal));
+		order.put("taxAmount", tax);
+		order.put("totalAmount", total);
+		JsonNode createdOrder = client.post("POST /api/orders", "/api/orders", store, terminal, order, UUID.randomUUID().toString());
+		if (createdOrder == null || !createdOrder.hasNonNull("id")) {
+			return;
+		}
+		long orderId = createdOrder.get("id").asLong();
+		for (int i = 0; i < basket.size(); i++) {
+			CatalogItem item = basket.get(i);
+			Map<String, Object> line = new LinkedHashMap<>();
+			line.put("quantity", quantities.get(i));
+			line.put("unitPrice", item.price);
+			line.put("totalPrice", round(item.price * quantities.get(i)));
+			line.put("order.id", orderId);
+			line.put("product.id", item.productId);
+			client.post("POST /api/order-items", "/api/order-items", store, terminal, line);
+		}
+
+		Map<String, Object> invoice = new LinkedHashMap<>();
+		invoice.put("issueDate", LocalDate.now());
+		invoice.put("subtotal", round(subtotal));
+		invoice.put("taxAmount", tax);
+		invoice.put("totalAmount", total);
+		invoice.put("taxRate", 19.0);
+		invoice.put("status", "PAID");
+		invoice.put("paymentMethod", PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+		invoice.put("order.id", orderId);
+		JsonNode createdInvoice = client.post("POST /api/invoices", "/api/invoices", store, terminal, invoice, UUID.randomUUID().toString());
+		if (createdInvoice == null || !createdInvoice.hasNonNull("id")) {
+			return;
+		}
+		long invoiceId = createdInvoice.get("id").asLong();
+		for (int i = 0; i < basket.size(); i++) {
+			CatalogItem item = basket.get(i);
+			Map<String, Object> line = new LinkedHashMap<>();
+			line.put("description", "Load test product " + item.productId);
+			line.put("quantity", quantities.get(i));
+			line.put("unitPrice", item.price);
+			line.put("totalPrice", round(item.price * quantities.get(i)));
+			line.put("invoice.id", invoiceId);
+			line.put("product.id", item.productId);
+			client.post("POST /api/invoice-items", "/api/invoice-items", store, terminal, line);
+			if (item.inventoryId != null) {
+				client.post("POST /api/inventories/{id}/adjust", "/api/inventories/" + item.inventoryId + "/adjust", store, terminal,
+						Map.of("delta", -quantities.get(i)));
+			}
+		}
+	}
+
+	// a few promo items take a large share of the scans, like a real store
+	private CatalogItem pick(List<CatalogItem> catalog, ThreadLocalRandom random) {
+		int hot = Math.min(catalog.size(), 5);
+		if (random.nextDouble() < settings.hotItemShare) {
+			return catalog.get(random.nextInt(hot));
+		}
+		return catalog.get(random.nextInt(catalog.size()));
+	}
+
+	private double report(double seconds) throws IOException {
+		long totalRequests = 0;
+		long totalErrors = 0;
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("%n%-32s %9s %9s %8s %8s %8s %8s %8s %7s %7s%n",
+				"endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "err %", "429s"));
+		for (EndpointStats stats : new TreeMap<>(client.stats()).values()) {
+			long count = stats.latency.getCount();
+			if (count == 0 || stats.name.startsWith("setup")) {
+				continue;
+			}
+			long errors = stats.errors.sum();
+			totalRequests += count;
+			totalErrors += errors;
+			out.append(String.format("%-32s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7.2f %7d%n",
+					stats.name, count, count / seconds,
+					millis(stats.latency.getValueAtPercentile(50)),
+					millis(stats.latency.getValueAtPercentile(90)),
+					millis(stats.latency.getValueAtPercentile(99)),
+					millis(stats.latency.getValueAtPercentile(99.9)),
+					millis(stats.latency.getMax()),
+					100.0 * errors / count,
+					stats.rateLimited.sum()));
+		}
+		double errorRate = totalRequests == 0 ? 1 : (double) totalErrors / totalRequests;
+		out.append(String.format("%nCheckouts: %d (%.1f/s), requests: %d (%.1f/s), error rate: %.2f%%%n",
+				checkouts.sum(), checkouts.sum() / seconds, totalRequests, totalRequests / seconds, errorRate * 100));
+
+		System.out.print(out);
+		if (settings.reportFile != null) {
+			Files.writeString(Path.of(settings.reportFile), out.toString());
+		}
+		return errorRate;
+	}
+
+	private static void pause(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(millis / 2, millis * 3 / 2 + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	private record CatalogItem(long productId, String barCode, Long inventoryId, double price) {
+	}
+
+	public record Settings(
+			String baseUrl,
+			int stores,
+			int registersPerStore,
+			int durationSeconds,
+			int warmupSeconds,
+			int products,
+			int maxLinesPerCheckout,
+			long thinkTimeMillis,
+			double hotItemShare,
+			double maxErrorRate,
+			String reportFile) {
+
+		static Settings fromSystemProperties() {
+			return new Settings(
+					System.getProperty("loadtest.baseUrl"),
+					Integer.getInteger("loadtest.stores", 4),
+					Integer.getInteger("loadtest.registersPerStore", 8),
+					Integer.getInteger("loadtest.durationSeconds", 60),
+					Integer.getInteger("loadtest.warmupSeconds", 10),
+					Integer.getInteger("loadtest.products", 200),
+					Integer.getInteger("loadtest.maxLinesPerCheckout", 5),
+					Long.getLong("loadtest.thinkTimeMillis", 500),
+					Double.parseDouble(System.getProperty("loadtest.hotItemShare", "0.3")),
+					Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01")),
+					System.getProperty("loadtest.reportFile"));
+		}
+	}
+}
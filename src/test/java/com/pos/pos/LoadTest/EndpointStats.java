@@ -0,0 +1,39 @@
+package com.pos.pos.LoadTest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.pos.pos.Util.LatencyHistogram;
+
+/**
+ * Latency and outcome counters for one logical endpoint.
+ */
+class EndpointStats {
+	final String name;
+	final LatencyHistogram latency = new LatencyHistogram();
+	final LongAdder errors = new LongAdder();
+	final LongAdder rateLimited = new LongAdder();
+
+	EndpointStats(String name) {
+		this.name = name;
+	}
+
+	void record(long nanos, int status) {
+		latency.record(nanos);
+		if (status == 429) {
+			rateLimited.increment();
+		} else if (status < 200 || status >= 300) {
+			errors.increment();
+		}
+	}
+
+	void recordFailure(long nanos) {
+		latency.record(nanos);
+		errors.increment();
+	}
+
+	void reset() {
+		latency.reset();
+		errors.reset();
+		rateLimited.reset();
+	}
+}
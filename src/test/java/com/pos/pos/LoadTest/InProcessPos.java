@@ -0,0 +1,57 @@
+package com.pos.pos.LoadTest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import com.pos.pos.PosApplication;
+
+/**
+ * The POS application started inside the harness JVM on a random port,
+ * backed by a throwaway Postgres container of the version the compose files
+ * run. Used when no {@code loadtest.baseUrl} is given, so a load test needs
+ * nothing but Docker.
+ */
+class InProcessPos implements AutoCloseable {
+	private final PostgreSQLContainer<?> postgres;
+	private final ConfigurableApplicationContext context;
+
+	private InProcessPos(PostgreSQLContainer<?> postgres, ConfigurableApplicationContext context) {
+		this.postgres = postgres;
+		this.context = context;
+	}
+
+	static InProcessPos start() {
+		PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:14"));
+		postgres.start();
+		try {
+			SpringApplication application = new SpringApplication(PosApplication.class);
+			application.setAdditionalProfiles("loadtest");
+			// passed as arguments so they win over any datasource in the environment
+			ConfigurableApplicationContext context = application.run(
+					"--server.port=0",
+					"--spring.datasource.url=" + postgres.getJdbcUrl(),
+					"--spring.datasource.username=" + postgres.getUsername(),
+					"--spring.datasource.password=" + postgres.getPassword(),
+					"--spring.jpa.hibernate.ddl-auto=update");
+			return new InProcessPos(postgres, context);
+		} catch (RuntimeException e) {
+			postgres.stop();
+			throw e;
+		}
+	}
+
+	String baseUrl() {
+		return "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+	}
+
+	@Override
+	public void close() {
+		try {
+			context.close();
+		} finally {
+			postgres.stop();
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.pos.pos.LoadTest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Thin HTTP client for the POS API. The controllers bind request
+ * parameters, so writes are sent as form posts. Every call names its store
+ * and is timed into the stats of its endpoint.
+ */
+class PosClient {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final HttpClient http;
+	private final String baseUrl;
+	private final ConcurrentMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+	PosClient(String baseUrl, HttpClient http) {
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+		this.http = http;
+	}
+
+	String baseUrl() {
+		return baseUrl;
+	}
+
+	Map<String, EndpointStats> stats() {
+		return stats;
+	}
+
+	JsonNode get(String endpoint, String path, long store, String terminal) {
+		HttpRequest request = base(path, store, terminal).GET().build();
+		return send(endpoint, request);
+	}
+
+	JsonNode post(String endpoint, String path, long store, String terminal, Map<String, ?> form) {
+		return post(endpoint, path, store, terminal, form, null);
+	}
+
+	JsonNode post(String endpoint, String path, long store, String terminal, Map<String, ?> form, String idempotencyKey) {
+		HttpRequest.Builder builder = base(path, store, terminal)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(encode(form)));
+		if (idempotencyKey != null) {
+			builder.header("Idempotency-Key", idempotencyKey);
+		}
+		return send(endpoint, builder.build());
+	}
+
+	private HttpRequest.Builder base(String path, long store, String terminal) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Accept", "application/json")
+				.header("X-Store-Id", Long.toString(store));
+		if (terminal != null) {
+			builder.header("X-Terminal-Id", terminal);
+		}
+		return builder;
+	}
+
+	private JsonNode send(String endpoint, HttpRequest request) {
+		EndpointStats endpointStats = stats.computeIfAbsent(endpoint, EndpointStats::new);
+		long start = System.nanoTime();
+		try {
+			HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+			endpointStats.record(System.nanoTime() - start, response.statusCode());
+			if (response.statusCode() / 100 != 2 || response.body() == null || response.body().isEmpty()) {
+				return null;
+			}
+			return MAPPER.readTree(response.body());
+		} catch (IOException e) {
+			endpointStats.recordFailure(System.nanoTime() - start);
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private static String encode(Map<String, ?> form) {
+		StringJoiner body = new StringJoiner("&");
+		form.forEach((key, value) -> {
+			if (value != null) {
+				body.add(URLEncoder.encode(key, StandardCharsets.UTF_8) + "="
+						+ URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+			}
+		});
+		return body.toString();
+	}
+}
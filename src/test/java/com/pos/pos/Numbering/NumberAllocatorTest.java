@@ -0,0 +1,230 @@
+package com.pos.pos.Numbering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pos.pos.Model.NumberSeries;
+import com.pos.pos.Repository.InvoiceRepository;
+import com.pos.pos.Repository.NumberSeriesRepository;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NumberAllocatorTest {
+	private static final LocalDate ISSUE_DATE = LocalDate.of(2026, 5, 4);
+
+	@Mock
+	private NumberSeriesRepository numberSeriesRepository;
+
+	@Mock
+	private InvoiceRepository invoiceRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final SeriesTable table = new SeriesTable();
+	private NumberAllocator numberAllocator;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		when(transactionManager.getTransaction(any())).thenAnswer(call -> new SimpleTransactionStatus());
+		doAnswer(call -> {
+			table.commit();
+			return null;
+		}).when(transactionManager).commit(any());
+		doAnswer(call -> {
+			table.rollback();
+			return null;
+		}).when(transactionManager).rollback(any());
+		when(numberSeriesRepository.findForUpdate(anyString())).thenAnswer(call -> table.findForUpdate(call.getArgument(0)));
+		when(numberSeriesRepository.insertIfAbsent(anyString(), anyLong())).thenAnswer(call -> table.insertIfAbsent(call.getArgument(0), call.getArgument(1)));
+		when(numberSeriesRepository.save(any())).thenAnswer(call -> table.save(call.getArgument(0)));
+		when(numberSeriesRepository.saveAndFlush(any())).thenAnswer(call -> table.save(call.getArgument(0)));
+
+		numberAllocator = new NumberAllocator(transactionManager);
+		ReflectionTestUtils.setField(numberAllocator, "numberSeriesRepository", numberSeriesRepository);
+		ReflectionTestUtils.setField(numberAllocator, "invoiceRepository", invoiceRepository);
+		ReflectionTestUtils.setField(numberAllocator, "orderBlockSize", 10);
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	void newSeriesContinuesAfterTheLastIssuedInvoice() {
+		when(invoiceRepository.findLastInvoiceNumber("F1-2026-")).thenReturn("F1-2026-00000041");
+
+		assertThat(issue()).isEqualTo("F1-2026-00000042");
+		assertThat(issue()).isEqualTo("F1-2026-00000043");
+	}
+
+	@Test
+	void aRolledBackInvoiceGivesItsNumberToTheNextOne() {
+		assertThatThrownBy(() -> transactionTemplate.execute(tx -> {
+			numberAllocator.nextInvoiceNumber(ISSUE_DATE);
+			throw new IllegalStateException("invoice could not be saved");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(issue()).isEqualTo("F1-2026-00000001");
+		assertThat(issue()).isEqualTo("F1-2026-00000002");
+	}
+
+	@Test
+	void concurrentInvoicesGetAGaplessSeries() throws Exception {
+		int threads = 8;
+		int perThread = 50;
+		Set<String> committed = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> runs = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				runs.add(executor.submit(() -> {
+					for (int i = 0; i < perThread; i++) {
+						boolean fail = ThreadLocalRandom.current().nextInt(10) == 0;
+						try {
+							String number = transactionTemplate.execute(tx -> {
+								String allocated = numberAllocator.nextInvoiceNumber(ISSUE_DATE);
+								if (fail) {
+									throw new IllegalStateException("rolled back");
+								}
+								return allocated;
+							});
+							assertThat(committed.add(number)).as("duplicate %s", number).isTrue();
+						} catch (IllegalStateException e) {
+							// the number goes back with the rollback
+						}
+					}
+				}));
+			}
+			for (Future<?> run : runs) {
+				run.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Set<String> expected = new HashSet<>();
+		for (int n = 1; n <= committed.size(); n++) {
+			expected.add(String.format("F1-2026-%08d", n));
+		}
+		assertThat(committed).isEqualTo(expected);
+	}
+
+	@Test
+	void concurrentRegistersGetUniqueOrderNumbers() throws Exception {
+		Set<String> numbers = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> runs = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				String register = t % 2 == 0 ? "S1-R1" : "S1-R2";
+				runs.add(executor.submit(() -> {
+					for (int i = 0; i < 100; i++) {
+						assertThat(numbers.add(numberAllocator.nextOrderNumber(register))).isTrue();
+					}
+				}));
+			}
+			for (Future<?> run : runs) {
+				run.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(numbers).hasSize(800).contains("1-S1-R1-000001", "1-S1-R2-000400");
+	}
+
+	private String issue() {
+		return transactionTemplate.execute(tx -> numberAllocator.nextInvoiceNumber(ISSUE_DATE));
+	}
+
+	/**
+	 * The number_series table: rows locked by findForUpdate stay locked by
+	 * the calling thread until its transaction commits or rolls back, and
+	 * changes only become visible on commit.
+	 */
+	private static class SeriesTable {
+		private final Map<String, Long> rows = new ConcurrentHashMap<>();
+		private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+		private final ThreadLocal<Map<String, Long>> pending = ThreadLocal.withInitial(HashMap::new);
+		private final ThreadLocal<Set<String>> held = ThreadLocal.withInitial(HashSet::new);
+
+		Optional<NumberSeries> findForUpdate(String key) {
+			if (!rows.containsKey(key)) {
+				return Optional.empty();
+			}
+			if (held.get().add(key)) {
+				locks.computeIfAbsent(key, k -> new ReentrantLock()).lock();
+			}
+			Long value = pending.get().getOrDefault(key, rows.get(key));
+			return Optional.of(NumberSeries.builder().seriesKey(key).nextValue(value).build());
+		}
+
+		int insertIfAbsent(String key, Long nextValue) {
+			return rows.putIfAbsent(key, nextValue) == null ? 1 : 0;
+		}
+
+		NumberSeries save(NumberSeries series) {
+			pending.get().put(series.getSeriesKey(), series.getNextValue());
+			return series;
+		}
+
+		void commit() {
+			try {
+				for (Map.Entry<String, Long> change : pending.get().entrySet()) {
+					// a row saved without holding its lock is an insert
+					if (!held.get().contains(change.getKey()) && rows.putIfAbsent(change.getKey(), change.getValue()) != null) {
+						throw new DataIntegrityViolationException("duplicate key " + change.getKey());
+					}
+					rows.put(change.getKey(), change.getValue());
+				}
+			} finally {
+				end();
+			}
+		}
+
+		void rollback() {
+			end();
+		}
+
+		private void end() {
+			pending.get().clear();
+			for (String key : held.get()) {
+				locks.get(key).unlock();
+			}
+			held.get().clear();
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.pos.pos.Outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.pos.Model.OutboxEvent;
+
+class FileOutboxSinkTest {
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void appendsEveryBatchAsJsonLinesInOrder() throws Exception {
+		Path file = directory.resolve("nested/outbox.jsonl");
+		FileOutboxSink sink = newSink(file);
+
+		sink.publish(List.of(event(1L, "{\"orderNumber\":\"1-POS-000001\"}"), event(2L, "{}")));
+		sink.publish(List.of(event(3L, "{\"status\":\"PAID\"}")));
+
+		List<String> lines = Files.readAllLines(file);
+		assertThat(lines).hasSize(3);
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		assertThat(first.get("id").asLong()).isEqualTo(1);
+		assertThat(first.get("aggregateType").asText()).isEqualTo("order");
+		assertThat(first.get("payload").get("orderNumber").asText()).isEqualTo("1-POS-000001");
+		assertThat(objectMapper.readTree(lines.get(2)).get("payload").get("status").asText()).isEqualTo("PAID");
+	}
+
+	@Test
+	void aBatchWithABadPayloadWritesNothing() throws Exception {
+		Path file = directory.resolve("outbox.jsonl");
+		FileOutboxSink sink = newSink(file);
+
+		assertThatThrownBy(() -> sink.publish(List.of(event(1L, "{}"), event(2L, "not json")))).isInstanceOf(Exception.class);
+
+		assertThat(file).doesNotExist();
+	}
+
+	private FileOutboxSink newSink(Path file) {
+		FileOutboxSink sink = new FileOutboxSink(file.toString());
+		ReflectionTestUtils.setField(sink, "objectMapper", objectMapper);
+		return sink;
+	}
+
+	private static OutboxEvent event(Long id, String payload) {
+		return OutboxEvent.builder().id(id).storeId(1L).aggregateType("order").aggregateId(10L).eventType(OutboxEvent.ORDER_CREATED)
+				.payload(payload).createdAt(LocalDateTime.of(2026, 5, 4, 12, 0)).build();
+	}
+}
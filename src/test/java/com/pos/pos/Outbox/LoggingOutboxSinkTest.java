@@ -0,0 +1,31 @@
+package com.pos.pos.Outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.pos.pos.Model.OutboxEvent;
+
+class LoggingOutboxSinkTest {
+
+	@Test
+	void keepsTheMostRecentEventsInOrder() {
+		LoggingOutboxSink sink = new LoggingOutboxSink();
+		List<OutboxEvent> batch = new ArrayList<>();
+		for (long id = 1; id <= 1005; id++) {
+			batch.add(OutboxEvent.builder().id(id).aggregateType("invoice").aggregateId(id).eventType(OutboxEvent.INVOICE_ISSUED)
+					.payload("{}").build());
+		}
+
+		sink.publish(batch.subList(0, 5));
+		sink.publish(batch.subList(5, 1005));
+
+		List<OutboxEvent> recent = sink.recent();
+		assertThat(recent).hasSize(1000);
+		assertThat(recent.get(0).getId()).isEqualTo(6L);
+		assertThat(recent.get(999).getId()).isEqualTo(1005L);
+	}
+}
@@ -0,0 +1,239 @@
+package com.pos.pos.Outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pos.pos.Model.OutboxEvent;
+import com.pos.pos.Repository.OutboxEventRepository;
+import com.pos.pos.Tenant.Shards;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxRelayTest {
+	@Mock
+	private OutboxEventRepository outboxEventRepository;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	private final OutboxTable table = new OutboxTable();
+	private final RecordingSink sink = new RecordingSink();
+
+	@BeforeEach
+	void setUp() {
+		when(transactionTemplate.execute(any())).thenAnswer(call -> call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(outboxEventRepository.lockReady(any(), anyInt())).thenAnswer(call -> table.lockReady(call.getArgument(0), call.getArgument(1)));
+		when(outboxEventRepository.claimUntil(anyCollection(), any())).thenAnswer(call -> table.claimUntil(call.getArgument(0), call.getArgument(1)));
+		when(outboxEventRepository.markPublished(anyCollection(), any())).thenAnswer(call -> table.markPublished(call.getArgument(0), call.getArgument(1)));
+		when(outboxEventRepository.markFailed(anyLong(), any(), anyString(), anyInt())).thenAnswer(call -> table.markFailed(
+				call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3)));
+	}
+
+	@Test
+	void publishesReadyEventsInOrderAndMarksThemPublished() {
+		table.add(1, "order", 10);
+		table.add(2, "invoice", 20);
+		table.add(3, "order", 11);
+
+		newRelay().relay();
+
+		assertThat(sink.published).containsExactly(1L, 2L, 3L);
+		assertThat(table.rows.values()).allSatisfy(event -> assertThat(event.getPublishedAt()).isNotNull());
+	}
+
+	@Test
+	void holdsBackLaterEventsOfAnAggregateUntilTheEarlierOneIsPublished() {
+		table.add(1, "order", 10);
+		table.add(2, "order", 10);
+		table.add(3, "order", 11);
+		sink.failing.add(1L);
+		OutboxRelay relay = newRelay();
+
+		relay.relay();
+		// 2 waits behind the failed 1, the other order is not held up
+		assertThat(sink.published).containsExactly(3L);
+		assertThat(table.rows.get(2L).getPublishedAt()).isNull();
+
+		sink.failing.clear();
+		relay.relay();
+		relay.relay();
+		assertThat(sink.published).containsExactly(3L, 1L, 2L);
+	}
+
+	@Test
+	void aParkedEventHoldsBackItsAggregate() {
+		table.add(1, "invoice", 20);
+		table.add(2, "invoice", 20);
+		sink.failing.add(1L);
+		OutboxRelay relay = newRelay();
+		ReflectionTestUtils.setField(relay, "maxAttempts", 2);
+
+		relay.relay();
+		relay.relay();
+		relay.relay();
+
+		OutboxEvent parked = table.rows.get(1L);
+		assertThat(parked.getAttempts()).isEqualTo(2);
+		assertThat(parked.getNextAttemptAt()).isNull();
+		assertThat(parked.getLastError()).contains("sink down");
+		assertThat(sink.published).isEmpty();
+	}
+
+	@Test
+	void aClaimThatRunsOutIsPickedUpByAnotherRelay() throws Exception {
+		table.add(1, "order", 10);
+		table.add(2, "order", 11);
+		OutboxRelay first = newRelay();
+		OutboxRelay second = newRelay();
+		ReflectionTestUtils.setField(first, "claimTimeoutMillis", 50L);
+
+		// the first relay claims the batch and dies before sending it
+		List<OutboxEvent> claimed = ReflectionTestUtils.invokeMethod(first, "claimBatch");
+		assertThat(claimed).hasSize(2);
+		second.relay();
+		assertThat(sink.published).isEmpty();
+
+		Thread.sleep(80);
+		second.relay();
+		assertThat(sink.published).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void aLateFailureDoesNotUndoAnotherRelaysPublish() throws Exception {
+		table.add(1, "order", 10);
+		OutboxRelay slow = newRelay();
+		ReflectionTestUtils.setField(slow, "claimTimeoutMillis", 0L);
+		List<OutboxEvent> claimed = ReflectionTestUtils.invokeMethod(slow, "claimBatch");
+
+		// the claim ran out and another relay delivered the event in the meantime
+		Thread.sleep(5);
+		newRelay().relay();
+		ReflectionTestUtils.invokeMethod(slow, "markFailed", claimed.get(0), new IllegalStateException("timed out"));
+
+		OutboxEvent event = table.rows.get(1L);
+		assertThat(event.getPublishedAt()).isNotNull();
+		assertThat(event.getAttempts()).isZero();
+		assertThat(event.getLastError()).isNull();
+		verify(outboxEventRepository, never()).save(any());
+	}
+
+	private OutboxRelay newRelay() {
+		OutboxRelay relay = new OutboxRelay();
+		ReflectionTestUtils.setField(relay, "outboxEventRepository", outboxEventRepository);
+		ReflectionTestUtils.setField(relay, "outboxSink", sink);
+		ReflectionTestUtils.setField(relay, "shards", new Shards());
+		ReflectionTestUtils.setField(relay, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(relay, "batchSize", 100);
+		ReflectionTestUtils.setField(relay, "maxAttempts", 10);
+		ReflectionTestUtils.setField(relay, "backoffMillis", 0L);
+		ReflectionTestUtils.setField(relay, "maxBackoffMillis", 0L);
+		ReflectionTestUtils.setField(relay, "claimTimeoutMillis", 60_000L);
+		return relay;
+	}
+
+	private static class RecordingSink implements OutboxSink {
+		final List<Long> published = new ArrayList<>();
+		final Set<Long> failing = new CopyOnWriteArraySet<>();
+
+		@Override
+		public void publish(List<OutboxEvent> events) {
+			for (OutboxEvent event : events) {
+				if (failing.contains(event.getId())) {
+					throw new IllegalStateException("sink down for " + event.getId());
+				}
+			}
+			events.forEach(event -> published.add(event.getId()));
+		}
+	}
+
+	/**
+	 * The outbox_events table as the relay's queries see it. Claimed rows
+	 * are returned as copies, like entities loaded in another transaction.
+	 */
+	private static class OutboxTable {
+		final Map<Long, OutboxEvent> rows = new TreeMap<>();
+
+		void add(long id, String aggregateType, long aggregateId) {
+			rows.put(id, OutboxEvent.builder().id(id).storeId(1L).aggregateType(aggregateType).aggregateId(aggregateId)
+					.eventType("Test").payload("{}").nextAttemptAt(LocalDateTime.now().minusSeconds(1)).build());
+		}
+
+		synchronized List<OutboxEvent> lockReady(LocalDateTime now, int limit) {
+			List<OutboxEvent> ready = new ArrayList<>();
+			for (OutboxEvent event : rows.values()) {
+				if (ready.size() == limit) {
+					break;
+				}
+				boolean due = event.getPublishedAt() == null && event.getNextAttemptAt() != null && !event.getNextAttemptAt().isAfter(now);
+				if (due && !hasEarlierUnpublished(event)) {
+					ready.add(copy(event));
+				}
+			}
+			return ready;
+		}
+
+		synchronized int claimUntil(Collection<Long> ids, LocalDateTime until) {
+			ids.forEach(id -> rows.get(id).setNextAttemptAt(until));
+			return ids.size();
+		}
+
+		synchronized int markPublished(Collection<Long> ids, LocalDateTime now) {
+			ids.forEach(id -> {
+				rows.get(id).setPublishedAt(now);
+				rows.get(id).setLastError(null);
+			});
+			return ids.size();
+		}
+
+		synchronized int markFailed(Long id, LocalDateTime nextAttemptAt, String error, int maxAttempts) {
+			OutboxEvent event = rows.get(id);
+			if (event.getPublishedAt() != null) {
+				return 0;
+			}
+			event.setAttempts(event.getAttempts() + 1);
+			event.setLastError(error);
+			event.setNextAttemptAt(event.getAttempts() >= maxAttempts ? null : nextAttemptAt);
+			return 1;
+		}
+
+		private static OutboxEvent copy(OutboxEvent event) {
+			return new OutboxEvent(event.getId(), event.getStoreId(), event.getAggregateType(), event.getAggregateId(),
+					event.getEventType(), event.getPayload(), event.getAttempts(), event.getNextAttemptAt(), event.getLastError(),
+					event.getPublishedAt(), event.getCreatedAt());
+		}
+
+		private boolean hasEarlierUnpublished(OutboxEvent event) {
+			return rows.values().stream().anyMatch(earlier -> earlier.getId() < event.getId()
+					&& earlier.getAggregateType().equals(event.getAggregateType())
+					&& earlier.getAggregateId().equals(event.getAggregateId())
+					&& earlier.getPublishedAt() == null);
+		}
+	}
+}
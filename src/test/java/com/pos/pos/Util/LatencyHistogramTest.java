@@ -0,0 +1,82 @@
+package com.pos.pos.Util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+	@Test
+	void smallValuesGetTheirOwnBucket() {
+		for (int v = 0; v < 16; v++) {
+			assertThat(LatencyHistogram.indexFor(v)).isEqualTo(v);
+			assertThat(LatencyHistogram.lowerBound(v)).isEqualTo(v);
+		}
+		assertThat(LatencyHistogram.indexFor(16)).isEqualTo(16);
+		assertThat(LatencyHistogram.indexFor(31)).isEqualTo(31);
+		assertThat(LatencyHistogram.indexFor(32)).isEqualTo(32);
+		assertThat(LatencyHistogram.indexFor(33)).isEqualTo(32);
+	}
+
+	@Test
+	void everyValueFallsInsideItsBucketWithinSixPercent() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < 100_000; i++) {
+			long value = random.nextLong(Long.MAX_VALUE >>> random.nextInt(63));
+			int index = LatencyHistogram.indexFor(value);
+			long lower = LatencyHistogram.lowerBound(index);
+
+			assertThat(lower).isLessThanOrEqualTo(value);
+			if (index < 959) {
+				long next = LatencyHistogram.lowerBound(index + 1);
+				assertThat(value).isLessThan(next);
+				assertThat((double) (next - lower)).isLessThanOrEqualTo(Math.max(1, lower / 16.0));
+			}
+		}
+	}
+
+	@Test
+	void bucketsAreContiguousUpToTheLargestValue() {
+		for (int index = 0; index < 959; index++) {
+			long next = LatencyHistogram.lowerBound(index + 1);
+			assertThat(LatencyHistogram.indexFor(next - 1)).isEqualTo(index);
+			assertThat(LatencyHistogram.indexFor(next)).isEqualTo(index + 1);
+		}
+		assertThat(LatencyHistogram.indexFor(Long.MAX_VALUE)).isEqualTo(959);
+	}
+
+	@Test
+	void percentilesReportTheBucketUpperBoundCappedAtTheMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long v = 1; v <= 100; v++) {
+			histogram.record(v);
+		}
+
+		assertThat(histogram.getCount()).isEqualTo(100);
+		assertThat(histogram.getSum()).isEqualTo(5050);
+		assertThat(histogram.getMean()).isEqualTo(50.5);
+		assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+		// 50 lands in the [50, 51] bucket
+		assertThat(histogram.getValueAtPercentile(50)).isEqualTo(51);
+		assertThat(histogram.getValueAtPercentile(99)).isBetween(99L, 100L);
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100);
+	}
+
+	@Test
+	void emptyAndResetHistogramsReportZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.getValueAtPercentile(99)).isZero();
+		assertThat(histogram.getMean()).isZero();
+
+		histogram.record(1_000_000);
+		histogram.record(-5);
+		assertThat(histogram.getMax()).isEqualTo(1_000_000);
+		assertThat(histogram.getValueAtPercentile(50)).isZero();
+
+		histogram.reset();
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getValueAtPercentile(100)).isZero();
+	}
+}
@@ -0,0 +1,98 @@
+package com.pos.pos.Util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+	@Test
+	void concurrentCallersShareOneExecution() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+				executions.incrementAndGet();
+				entered.countDown();
+				await(release);
+				return "value";
+			}));
+			assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+			List<Future<String>> followers = new ArrayList<>();
+			for (int i = 0; i < 7; i++) {
+				followers.add(executor.submit(() -> flight.execute("key", () -> {
+					executions.incrementAndGet();
+					return "other";
+				})));
+			}
+			// let the followers reach the in-flight call before it completes
+			Thread.sleep(100);
+			release.countDown();
+
+			assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+			for (Future<String> follower : followers) {
+				assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+			}
+			assertThat(executions.get()).isEqualTo(1);
+			assertThat(flight.inFlightCount()).isZero();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void nothingIsCachedAfterCompletion() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		AtomicInteger executions = new AtomicInteger();
+		flight.execute("key", executions::incrementAndGet);
+		flight.execute("key", executions::incrementAndGet);
+		assertThat(executions.get()).isEqualTo(2);
+	}
+
+	@Test
+	void failuresReachEveryCallerAndAreNotKept() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+				entered.countDown();
+				await(release);
+				throw new IllegalStateException("boom");
+			}));
+			assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<String> follower = executor.submit(() -> flight.execute("key", () -> "other"));
+			Thread.sleep(100);
+			release.countDown();
+
+			assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+			assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+			assertThat(flight.execute("key", () -> "fresh")).isEqualTo("fresh");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.pos.pos.Util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+	@Test
+	void startsFullAndRejectsOnceEmpty() {
+		TokenBucket bucket = new TokenBucket(5, 0.001);
+		for (int i = 0; i < 5; i++) {
+			assertThat(bucket.tryAcquire()).isTrue();
+		}
+		assertThat(bucket.tryAcquire()).isFalse();
+		assertThat(bucket.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void refillsOverTime() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(1, 1000);
+		assertThat(bucket.tryAcquire()).isTrue();
+		Thread.sleep(20);
+		assertThat(bucket.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void neverRefillsAboveCapacity() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(3, 1000);
+		Thread.sleep(50);
+		int granted = 0;
+		while (bucket.tryAcquire()) {
+			granted++;
+			if (granted > 100) {
+				break;
+			}
+		}
+		// a few tokens may come back while the loop runs, never 50
+		assertThat(granted).isBetween(3, 10);
+	}
+
+	@Test
+	void handsOutExactlyCapacityUnderContention() throws InterruptedException {
+		int capacity = 1000;
+		TokenBucket bucket = new TokenBucket(capacity, 0.001);
+		AtomicInteger granted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < 500; i++) {
+					if (bucket.tryAcquire()) {
+						granted.incrementAndGet();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(granted.get()).isEqualTo(capacity);
+	}
+
+	@Test
+	void rejectsCapacityThatDoesNotFitThePackedState() {
+		assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TokenBucket(1L << 20, 1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TokenBucket(10, 0)).isInstanceOf(IllegalArgumentException.class);
+		new TokenBucket((1L << 20) - 1, 1);
+	}
+}